@@ -0,0 +1,123 @@
+package org.freeone.javabean.tsinterface;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import org.freeone.javabean.tsinterface.service.DtoBatchGenerationService;
+import org.freeone.javabean.tsinterface.service.GenerationHistoryService;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
+import org.freeone.javabean.tsinterface.util.CommonUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 批量將選中的文件、包或模塊中的所有 DTO 轉換為 TypeScript 接口
+ * <p>
+ * 支持項目視圖中的多選，查找、生成和寫入都在可取消的後台任務中完成
+ * </p>
+ */
+public class JavaBeanToTypescriptInterfaceBatchAction extends AnAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        VirtualFile[] virtualFiles = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        Module[] modules = e.getData(LangDataKeys.MODULE_CONTEXT_ARRAY);
+        boolean hasSelection = (virtualFiles != null && virtualFiles.length > 0)
+                || (modules != null && modules.length > 0);
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null && hasSelection);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+
+        // 收集選中的文件、文件夾以及模塊的源碼根目錄
+        List<VirtualFile> roots = new ArrayList<>();
+        VirtualFile[] virtualFiles = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (virtualFiles != null) {
+            roots.addAll(Arrays.asList(virtualFiles));
+        }
+        Module[] modules = e.getData(LangDataKeys.MODULE_CONTEXT_ARRAY);
+        if (modules != null) {
+            roots.addAll(DtoBatchGenerationService.getModuleSourceRoots(modules));
+        }
+        if (roots.isEmpty()) {
+            Messages.showMessageDialog("請選擇 Java 文件、包或模塊", "提示", Messages.getInformationIcon());
+            return;
+        }
+
+        FileChooserDescriptor chooserDescriptor = CommonUtils.createFileChooserDescriptor("選擇一個文件夾",
+                "TypeScript 介面文件（.ts）將保存在此文件夾中");
+        VirtualFile savePathFile = FileChooser.chooseFile(chooserDescriptor, project, null);
+        if (savePathFile == null || !savePathFile.isDirectory()) {
+            return;
+        }
+        File directory = new File(savePathFile.getPath());
+
+        new Task.Backgroundable(project, "批量生成 TypeScript 接口", true) {
+
+            private int dtoClassCount;
+
+            private int writtenCount;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                List<PsiClass> dtoClasses = DtoBatchGenerationService.collectDtoClasses(project, roots, indicator);
+                dtoClassCount = dtoClasses.size();
+                if (dtoClasses.isEmpty()) {
+                    return;
+                }
+
+                // 生成和寫入清單使用同一份設定快照
+                GenerationOptions options = GenerationOptions.current();
+                List<DtoBatchGenerationService.GeneratedFile> results =
+                        DtoBatchGenerationService.generate(project, dtoClasses, options, indicator);
+                writtenCount = DtoBatchGenerationService.writeFiles(project, directory, results, options,
+                        indicator);
+
+                GenerationHistoryService.getInstance(project).record(DtoBatchGenerationService.getReports(results));
+            }
+
+            @Override
+            public void onSuccess() {
+                if (dtoClassCount == 0) {
+                    Messages.showMessageDialog(project, "選中範圍內沒有找到 DTO 類", "提示",
+                            Messages.getInformationIcon());
+                    return;
+                }
+                NotificationGroupManager.getInstance()
+                        .getNotificationGroup("JavaDtoToTypescriptInterface")
+                        .createNotification("已生成 " + writtenCount + "/" + dtoClassCount
+                                + " 個 TypeScript 接口文件到 " + directory.getPath(), NotificationType.INFORMATION)
+                        .setImportant(true)
+                        .notify(project);
+            }
+        }.queue();
+    }
+}
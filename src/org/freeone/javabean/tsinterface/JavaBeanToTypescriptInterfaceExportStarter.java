@@ -0,0 +1,133 @@
+package org.freeone.javabean.tsinterface;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ex.ProjectManagerEx;
+import com.intellij.psi.PsiClass;
+import org.freeone.javabean.tsinterface.service.DtoBatchGenerationService;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 命令行批量導出 TypeScript 接口，供持續集成使用
+ * <p>
+ * 用法: {@code idea dto-ts-export <項目路徑> <輸出文件夾>}。
+ * 以無界面模式打開項目並等待索引完成，為所有控制器使用的 DTO 並行生成接口文件，使用全局設定。
+ * 完成後輸出各階段耗時，任一類生成或寫入失敗時以非零狀態碼退出
+ * </p>
+ */
+public class JavaBeanToTypescriptInterfaceExportStarter implements ApplicationStarter {
+
+    private static final Logger LOG = Logger.getInstance(JavaBeanToTypescriptInterfaceExportStarter.class);
+
+    private static final int EXIT_FAILED = 1;
+
+    private static final int EXIT_USAGE = 2;
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        int exitCode;
+        try {
+            exitCode = export(args);
+        } catch (Exception e) {
+            LOG.error("導出 TypeScript 接口失敗", e);
+            exitCode = EXIT_FAILED;
+        }
+        System.exit(exitCode);
+    }
+
+    private int export(List<String> args) {
+        // 第一個參數是命令名
+        if (args.size() < 3) {
+            System.err.println("用法: idea dto-ts-export <項目路徑> <輸出文件夾>");
+            return EXIT_USAGE;
+        }
+        Path projectPath = Paths.get(args.get(1)).toAbsolutePath().normalize();
+        File directory = new File(args.get(2)).getAbsoluteFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("無法創建輸出文件夾: " + directory);
+            return EXIT_FAILED;
+        }
+
+        long startNanos = System.nanoTime();
+        Project project = ProjectUtil.openOrImport(projectPath, null, false);
+        if (project == null) {
+            System.err.println("無法打開項目: " + projectPath);
+            return EXIT_FAILED;
+        }
+
+        try {
+            long openedNanos = System.nanoTime();
+            DumbService.getInstance(project).waitForSmartMode();
+            long indexedNanos = System.nanoTime();
+
+            ProgressIndicator indicator = new EmptyProgressIndicator();
+            List<PsiClass> dtoClasses = DtoBatchGenerationService.collectEndpointDtoClasses(project, indicator);
+            long collectedNanos = System.nanoTime();
+
+            GenerationOptions options = GenerationOptions.current();
+            List<DtoBatchGenerationService.GeneratedFile> results =
+                    DtoBatchGenerationService.generate(project, dtoClasses, options, indicator);
+            long generatedNanos = System.nanoTime();
+
+            int written = DtoBatchGenerationService.writeFiles(project, directory, results, options,
+                    indicator);
+            long writtenNanos = System.nanoTime();
+
+            Set<String> failedClasses = ReadAction.compute(() -> {
+                Set<String> classNames = new LinkedHashSet<>();
+                for (PsiClass dtoClass : dtoClasses) {
+                    classNames.add(dtoClass.getQualifiedName());
+                }
+                return classNames;
+            });
+            for (DtoBatchGenerationService.GeneratedFile result : results) {
+                failedClasses.remove(result.getQualifiedName());
+            }
+            for (String failedClass : failedClasses) {
+                System.err.println("生成失敗: " + failedClass);
+            }
+
+            System.out.println("打開項目: " + formatMillis(openedNanos - startNanos) + " ms");
+            System.out.println("等待索引: " + formatMillis(indexedNanos - openedNanos) + " ms");
+            System.out.println("查找 DTO: " + formatMillis(collectedNanos - indexedNanos) + " ms");
+            System.out.println("生成接口: " + formatMillis(generatedNanos - collectedNanos) + " ms");
+            System.out.println("寫入文件: " + formatMillis(writtenNanos - generatedNanos) + " ms");
+            System.out.println("已生成 " + written + "/" + dtoClasses.size() + " 個 TypeScript 接口文件到 "
+                    + directory.getPath() + "，共 " + formatMillis(writtenNanos - startNanos) + " ms");
+
+            return failedClasses.isEmpty() && written == results.size() ? 0 : EXIT_FAILED;
+        } finally {
+            ApplicationManager.getApplication().invokeAndWait(
+                    () -> ProjectManagerEx.getInstanceEx().forceCloseProject(project));
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.valueOf(nanos / 1_000_000);
+    }
+}
@@ -0,0 +1,154 @@
+package org.freeone.javabean.tsinterface.engine;
+
+import com.intellij.core.JavaCoreApplicationEnvironment;
+import com.intellij.core.JavaCoreProjectEnvironment;
+import com.intellij.mock.MockProject;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileSystem;
+import org.freeone.javabean.tsinterface.service.DtoDetector;
+import org.freeone.javabean.tsinterface.service.TsDeclarationCacheService;
+import org.freeone.javabean.tsinterface.setting.JavaBeanToTypescriptInterfaceProjectSettings;
+import org.freeone.javabean.tsinterface.setting.JavaBeanToTypescriptInterfaceSettingsState;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 不依賴 IDE 的 Java PSI 環境
+ * <p>
+ * 整個進程只創建一個應用環境，各項目環境掛在它之下並可重複使用，關閉時一併釋放。
+ * 環境中註冊了生成器需要的設定和聲明緩存服務，源碼根目錄和類路徑加入後即可跨文件解析類型。
+ * 只能在 IDE 之外使用：創建應用環境會替換當前進程的 Application
+ * </p>
+ */
+final class CoreJavaEnvironment {
+
+    private static final Logger LOG = Logger.getInstance(CoreJavaEnvironment.class);
+
+    private static Disposable applicationDisposable;
+
+    private static JavaCoreApplicationEnvironment applicationEnvironment;
+
+    private final JavaCoreProjectEnvironment projectEnvironment;
+
+    private final List<VirtualFile> sourceRoots = new ArrayList<>();
+
+    /**
+     * 使用全局默認設定創建項目環境
+     */
+    CoreJavaEnvironment() {
+        this(new JavaBeanToTypescriptInterfaceSettingsState());
+    }
+
+    /**
+     * 創建項目環境
+     *
+     * @param settings 首次創建應用環境時註冊的設定，之後的環境共用同一份設定
+     */
+    CoreJavaEnvironment(JavaBeanToTypescriptInterfaceSettingsState settings) {
+        JavaCoreApplicationEnvironment application = getApplicationEnvironment(settings);
+        Disposable projectDisposable = Disposer.newDisposable(applicationDisposable, "CoreJavaEnvironment");
+        projectEnvironment = new JavaCoreProjectEnvironment(projectDisposable, application);
+
+        MockProject project = projectEnvironment.getProject();
+        project.registerService(JavaBeanToTypescriptInterfaceProjectSettings.class,
+                new JavaBeanToTypescriptInterfaceProjectSettings());
+        project.registerService(TsDeclarationCacheService.class, new TsDeclarationCacheService(project));
+        project.registerService(DtoDetector.class, new DtoDetector(project));
+    }
+
+    private static synchronized JavaCoreApplicationEnvironment getApplicationEnvironment(
+            JavaBeanToTypescriptInterfaceSettingsState settings) {
+        if (applicationEnvironment == null) {
+            applicationDisposable = Disposer.newDisposable("CoreJavaApplicationEnvironment");
+            applicationEnvironment = new JavaCoreApplicationEnvironment(applicationDisposable);
+            applicationEnvironment.registerApplicationService(JavaBeanToTypescriptInterfaceSettingsState.class,
+                    settings);
+            LOG.debug("已創建獨立 Java 應用環境");
+        }
+        return applicationEnvironment;
+    }
+
+    public MockProject getProject() {
+        return projectEnvironment.getProject();
+    }
+
+    /**
+     * 添加源碼根目錄，其中的類可以互相解析
+     */
+    public void addSourceRoot(File directory) {
+        VirtualFile root = applicationEnvironment.getLocalFileSystem().findFileByIoFile(directory);
+        if (root == null || !root.isDirectory()) {
+            throw new IllegalArgumentException("源碼根目錄不存在: " + directory);
+        }
+        projectEnvironment.addSourcesToClasspath(root);
+        sourceRoots.add(root);
+    }
+
+    /**
+     * 添加類路徑，支持 jar 文件和已編譯的類目錄，用於解析依賴庫中的類型
+     */
+    public void addClasspathEntry(File entry) {
+        if (entry.isDirectory()) {
+            VirtualFile root = applicationEnvironment.getLocalFileSystem().findFileByIoFile(entry);
+            if (root != null) {
+                projectEnvironment.addSourcesToClasspath(root);
+            }
+        } else if (entry.isFile()) {
+            projectEnvironment.addJarToClassPath(entry);
+        } else {
+            LOG.warn("類路徑不存在: " + entry);
+        }
+    }
+
+    /**
+     * 添加 JDK，使 String、List 等 JDK 類型可以被解析
+     * <p>
+     * JDK 9 及以上使用運行時鏡像中的 java.base 模塊，JDK 8 使用 rt.jar
+     * </p>
+     */
+    public void addJdk(File jdkHome) {
+        File rtJar = new File(jdkHome, "jre/lib/rt.jar");
+        if (rtJar.isFile()) {
+            projectEnvironment.addJarToClassPath(rtJar);
+            return;
+        }
+
+        VirtualFileSystem jrtFileSystem = applicationEnvironment.getJrtFileSystem();
+        VirtualFile javaBase = jrtFileSystem != null
+                ? jrtFileSystem.findFileByPath(jdkHome.getAbsolutePath() + "!/modules/java.base") : null;
+        if (javaBase == null) {
+            LOG.warn("無法讀取 JDK: " + jdkHome);
+            return;
+        }
+        projectEnvironment.addSourcesToClasspath(javaBase);
+    }
+
+    /**
+     * 列出所有源碼根目錄中的 Java 文件
+     */
+    public List<VirtualFile> collectJavaFiles() {
+        List<VirtualFile> javaFiles = new ArrayList<>();
+        for (VirtualFile root : sourceRoots) {
+            VfsUtilCore.iterateChildrenRecursively(root, null, file -> {
+                if (!file.isDirectory() && "java".equalsIgnoreCase(file.getExtension())) {
+                    javaFiles.add(file);
+                }
+                return true;
+            });
+        }
+        return javaFiles;
+    }
+
+    /**
+     * 釋放項目環境
+     */
+    public void close() {
+        Disposer.dispose(projectEnvironment.getParentDisposable());
+    }
+}
@@ -0,0 +1,350 @@
+package org.freeone.javabean.tsinterface.engine;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import org.freeone.javabean.tsinterface.index.DtoEndpointUsageIndex;
+import org.freeone.javabean.tsinterface.service.DtoBatchGenerationService;
+import org.freeone.javabean.tsinterface.service.DtoDetector;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
+import org.freeone.javabean.tsinterface.util.CommonUtils;
+import org.freeone.javabean.tsinterface.util.GenerationReport;
+import org.freeone.javabean.tsinterface.util.IncrementalTsWriter;
+import org.freeone.javabean.tsinterface.util.TypescriptContentGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * 不依賴 IDE 的 DTO 到 TypeScript 批量轉換
+ * <p>
+ * 在可重複使用的 {@link CoreJavaEnvironment} 中並行解析所有源碼文件，
+ * 解析時直接統計 DTO 作為控制器參數和返回值的次數，代替 IDE 中的文件索引，因此不需要等待索引。
+ * 之後為所有控制器使用的 DTO 並行生成接口，轉換邏輯與插件中的完全相同
+ * </p>
+ */
+public final class StandaloneTypescriptEngine {
+
+    private static final Logger LOG = Logger.getInstance(StandaloneTypescriptEngine.class);
+
+    private final CoreJavaEnvironment environment;
+
+    /**
+     * 類名（全限定名或無法確定包名時的簡單類名）到使用次數的映射
+     */
+    private final Map<String, DtoEndpointUsageIndex.EndpointUsage> usages = new ConcurrentHashMap<>();
+
+    /**
+     * 上次生成解析到的所有頂層類的全限定名，用於清理來源類已不存在的輸出文件
+     */
+    private final Set<String> sourceClassNames = new HashSet<>();
+
+    /**
+     * 上次生成使用的設定快照，寫入清單時使用同一份
+     */
+    private GenerationOptions options = GenerationOptions.current();
+
+    private int parsedFileCount;
+
+    private int dtoClassCount;
+
+    private long parseMillis;
+
+    private long totalMillis;
+
+    StandaloneTypescriptEngine(CoreJavaEnvironment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * 命令行入口
+     * <p>
+     * 用法: {@code <輸出文件夾> <源碼根目錄>... [--classpath <jar 或目錄>...] [--jdk <JDK 路徑>]}，
+     * 任一 DTO 生成或寫入失敗時以非零狀態碼退出
+     * </p>
+     */
+    public static void main(String[] args) {
+        List<File> sourceRoots = new ArrayList<>();
+        List<File> classpath = new ArrayList<>();
+        File jdkHome = null;
+        List<File> current = sourceRoots;
+        for (String arg : args) {
+            if ("--classpath".equals(arg)) {
+                current = classpath;
+            } else if ("--jdk".equals(arg)) {
+                current = null;
+            } else if (current == null) {
+                jdkHome = new File(arg);
+                current = sourceRoots;
+            } else {
+                current.add(new File(arg));
+            }
+        }
+        if (sourceRoots.size() < 2) {
+            System.err.println("用法: <輸出文件夾> <源碼根目錄>... [--classpath <jar 或目錄>...] [--jdk <JDK 路徑>]");
+            System.exit(2);
+        }
+
+        File directory = sourceRoots.remove(0);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("無法創建輸出文件夾: " + directory);
+            System.exit(1);
+        }
+
+        CoreJavaEnvironment environment = new CoreJavaEnvironment();
+        int exitCode;
+        try {
+            sourceRoots.forEach(environment::addSourceRoot);
+            classpath.forEach(environment::addClasspathEntry);
+            if (jdkHome != null) {
+                environment.addJdk(jdkHome);
+            }
+
+            StandaloneTypescriptEngine engine = new StandaloneTypescriptEngine(environment);
+            List<DtoBatchGenerationService.GeneratedFile> results = engine.generate();
+            int written = engine.writeFiles(directory, results);
+            System.out.println("已生成 " + written + "/" + engine.getDtoClassCount() + " 個 TypeScript 接口文件到 "
+                    + directory.getPath() + "，解析 " + engine.getParsedFileCount() + " 個文件用時 "
+                    + engine.getParseMillis() + " ms，共 " + engine.getTotalMillis() + " ms");
+            exitCode = written == engine.getDtoClassCount() ? 0 : 1;
+        } finally {
+            environment.close();
+        }
+        CommonUtils.getGenerationThreadPool().shutdown();
+        System.exit(exitCode);
+    }
+
+    /**
+     * 解析源碼根目錄並生成所有控制器使用的 DTO 的接口
+     *
+     * @return 成功生成的結果，按全限定名排序
+     */
+    public List<DtoBatchGenerationService.GeneratedFile> generate() {
+        long startNanos = System.nanoTime();
+        List<VirtualFile> javaFiles = environment.collectJavaFiles();
+        List<PsiClass> classes = parseSources(javaFiles);
+        parsedFileCount = javaFiles.size();
+        parseMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        sourceClassNames.clear();
+        for (PsiClass psiClass : classes) {
+            String qualifiedName = psiClass.getQualifiedName();
+            if (qualifiedName != null) {
+                sourceClassNames.add(qualifiedName);
+            }
+        }
+
+        List<PsiClass> dtoClasses = new ArrayList<>();
+        for (PsiClass psiClass : classes) {
+            DtoEndpointUsageIndex.EndpointUsage usage = getUsage(psiClass);
+            if ((usage.controllerParameterCount > 0 || usage.controllerReturnValueCount > 0)
+                    && DtoDetector.getInstance(environment.getProject()).isDtoClass(psiClass)) {
+                dtoClasses.add(psiClass);
+            }
+        }
+
+        // 所有 DTO 使用同一份設定快照
+        GenerationOptions options = GenerationOptions.current();
+        this.options = options;
+        // 與插件的批量生成一樣分組，每組在一個生成會話中解析
+        List<List<PsiClass>> sessions = DtoBatchGenerationService.partition(dtoClasses);
+        List<DtoBatchGenerationService.GeneratedFile> results = new ArrayList<>(dtoClasses.size());
+        for (List<DtoBatchGenerationService.GeneratedFile> sessionResults
+                : runInParallel(sessions, sessionClasses -> generateSession(sessionClasses, options))) {
+            results.addAll(sessionResults);
+        }
+        results.sort(Comparator.comparing(DtoBatchGenerationService.GeneratedFile::getQualifiedName));
+        dtoClassCount = dtoClasses.size();
+        totalMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        LOG.info("獨立生成完成: 文件 " + parsedFileCount + " 個, 解析 " + parseMillis + " ms, DTO "
+                + results.size() + "/" + dtoClassCount + " 個, 共 " + totalMillis + " ms");
+        return results;
+    }
+
+    /**
+     * 上次生成解析的 Java 文件數量
+     */
+    public int getParsedFileCount() {
+        return parsedFileCount;
+    }
+
+    /**
+     * 上次生成找到的 DTO 數量，包括生成失敗的
+     */
+    public int getDtoClassCount() {
+        return dtoClassCount;
+    }
+
+    public long getParseMillis() {
+        return parseMillis;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * 將上次生成的結果寫入文件夾，文件命名規則和增量寫入清單與插件的批量生成相同
+     * <p>
+     * 文件並行寫入，內容未變的文件不改動，來源類已不在源碼中的舊文件被刪除
+     * </p>
+     *
+     * @return 成功寫入的文件數量，包括內容未變的文件
+     */
+    public int writeFiles(File directory, List<DtoBatchGenerationService.GeneratedFile> results) {
+        List<String> fileNames = DtoBatchGenerationService.getFileNames(results);
+        IncrementalTsWriter writer = new IncrementalTsWriter(directory, options);
+        List<Integer> indexes = new ArrayList<>(results.size());
+        for (int index = 0; index < results.size(); index++) {
+            indexes.add(index);
+        }
+
+        // 各文件互不依賴，與解析一樣並行寫入
+        int written = runInParallel(indexes, index -> {
+            DtoBatchGenerationService.GeneratedFile result = results.get(index);
+            File file = new File(directory, fileNames.get(index));
+            try {
+                writer.write(file.getName(), List.of(result.getQualifiedName()), result.getContent());
+                return file;
+            } catch (IOException e) {
+                LOG.warn("保存文件 " + file + " 失敗", e);
+                return null;
+            }
+        }).size();
+
+        writer.prune(sourceClassNames::contains);
+        try {
+            writer.saveManifest();
+        } catch (IOException e) {
+            LOG.warn("保存文件夾 " + directory + " 的輸出清單失敗", e);
+        }
+        LOG.info("寫入文件: 更新 " + writer.getWrittenCount() + " 個, 未變 " + writer.getUnchangedCount()
+                + " 個, 刪除 " + writer.getDeletedCount() + " 個");
+        return written;
+    }
+
+    /**
+     * 並行解析 Java 文件，統計使用次數並收集頂層類
+     */
+    private List<PsiClass> parseSources(List<VirtualFile> javaFiles) {
+        PsiManager psiManager = PsiManager.getInstance(environment.getProject());
+        List<List<PsiClass>> classesPerFile = runInParallel(javaFiles, javaFile -> {
+            PsiFile psiFile = psiManager.findFile(javaFile);
+            if (!(psiFile instanceof PsiJavaFile)) {
+                return null;
+            }
+            PsiJavaFile psiJavaFile = (PsiJavaFile) psiFile;
+            // 多個文件並行合併同一個類的計數，每次合併生成新對象，不修改已發布的計數
+            DtoEndpointUsageIndex.collectUsages(psiJavaFile).forEach((className, usage) ->
+                    usages.merge(className, usage, (existing, added) -> {
+                        DtoEndpointUsageIndex.EndpointUsage sum = new DtoEndpointUsageIndex.EndpointUsage();
+                        sum.add(existing);
+                        sum.add(added);
+                        return sum;
+                    }));
+            return Arrays.asList(psiJavaFile.getClasses());
+        });
+
+        List<PsiClass> classes = new ArrayList<>();
+        for (List<PsiClass> fileClasses : classesPerFile) {
+            classes.addAll(fileClasses);
+        }
+        return classes;
+    }
+
+    /**
+     * 合併全限定名和簡單類名下的使用次數，與索引查詢的規則一致
+     */
+    private DtoEndpointUsageIndex.EndpointUsage getUsage(PsiClass psiClass) {
+        DtoEndpointUsageIndex.EndpointUsage total = new DtoEndpointUsageIndex.EndpointUsage();
+        String qualifiedName = psiClass.getQualifiedName();
+        String simpleName = psiClass.getName();
+        if (qualifiedName == null || simpleName == null) {
+            return total;
+        }
+        DtoEndpointUsageIndex.EndpointUsage usage = usages.get(qualifiedName);
+        if (usage != null) {
+            total.add(usage);
+        }
+        if (!qualifiedName.equals(simpleName)) {
+            usage = usages.get(simpleName);
+            if (usage != null) {
+                total.add(usage);
+            }
+        }
+        return total;
+    }
+
+    private List<DtoBatchGenerationService.GeneratedFile> generateSession(List<PsiClass> sessionClasses,
+                                                                        GenerationOptions options) {
+        TypescriptContentGenerator generator = new TypescriptContentGenerator(environment.getProject(), null,
+                options);
+        generator.setUsageLookup(this::getUsage);
+        try {
+            generator.processPsiClasses(sessionClasses);
+            generator.prepareContent();
+        } catch (RuntimeException e) {
+            LOG.warn("獨立生成會話失敗，改為逐個類生成", e);
+            List<DtoBatchGenerationService.GeneratedFile> results = new ArrayList<>(sessionClasses.size());
+            for (PsiClass psiClass : sessionClasses) {
+                try {
+                    DtoBatchGenerationService.GeneratedFile result = generateOne(psiClass, options);
+                    if (result != null) {
+                        results.add(result);
+                    }
+                } catch (RuntimeException classError) {
+                    LOG.warn("獨立生成 " + psiClass.getQualifiedName() + " 失敗", classError);
+                }
+            }
+            return results;
+        }
+        return DtoBatchGenerationService.renderSession(generator);
+    }
+
+    private DtoBatchGenerationService.GeneratedFile generateOne(PsiClass psiClass, GenerationOptions options) {
+        TypescriptContentGenerator generator = new TypescriptContentGenerator(environment.getProject(), null,
+                options);
+        generator.setUsageLookup(this::getUsage);
+        generator.processPsiClass(psiClass, false);
+        generator.prepareContent();
+        String content = generator.renderContent();
+        GenerationReport report = generator.getReport();
+        return report.rootClass != null ? new DtoBatchGenerationService.GeneratedFile(report.rootClass, content,
+                report, generator.getClassesOfRoot(report.rootClass)) : null;
+    }
+
+    /**
+     * 在插件的有界線程池中並行處理，單個元素失敗只記錄日誌
+     *
+     * @return 非空的結果，順序與輸入一致
+     */
+    private static <T, R> List<R> runInParallel(List<T> items, Function<T, R> task) {
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(CommonUtils.getGenerationThreadPool().submit(() -> task.apply(item)));
+        }
+
+        List<R> results = new ArrayList<>(futures.size());
+        for (Future<R> future : futures) {
+            try {
+                R result = future.get();
+                if (result != null) {
+                    results.add(result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("獨立生成被中斷", e);
+            } catch (ExecutionException e) {
+                LOG.warn("獨立生成任務失敗", e.getCause());
+            }
+        }
+        return results;
+    }
+}
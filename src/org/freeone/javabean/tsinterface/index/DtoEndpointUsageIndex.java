@@ -0,0 +1,511 @@
+package org.freeone.javabean.tsinterface.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.lang.LighterAST;
+import com.intellij.lang.LighterASTNode;
+import com.intellij.lang.TreeBackedLighterAST;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.impl.source.tree.ElementType;
+import com.intellij.psi.impl.source.tree.JavaElementType;
+import com.intellij.psi.impl.source.tree.LightTreeUtil;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * DTO 使用情境索引
+ * <p>
+ * 記錄每個類在方法參數和返回值中被使用的次數，以及其中屬於控制器方法的次數，
+ * 用於判斷類是請求還是響應，取代每次生成時的全項目引用搜索。
+ * 索引時只遍歷輕量語法樹（LighterAST），不構建完整的 PSI。
+ * 索引只能依賴文件內容，類名按導入語句和所在包推斷：
+ * 能確定時以全限定名為鍵，存在通配符導入而無法確定時以簡單類名為鍵。
+ * </p>
+ */
+public class DtoEndpointUsageIndex extends FileBasedIndexExtension<String, DtoEndpointUsageIndex.EndpointUsage> {
+
+    public static final ID<String, EndpointUsage> NAME = ID.create("org.freeone.javabean.tsinterface.DtoEndpointUsageIndex");
+
+    private static final int VERSION = 2;
+
+    /**
+     * 控制器方法上的映射註解
+     */
+    private static final String[] MAPPING_ANNOTATIONS = {
+            "RequestMapping", "GetMapping", "PostMapping", "PutMapping", "DeleteMapping", "PatchMapping"};
+
+    @Override
+    public @NotNull ID<String, EndpointUsage> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, EndpointUsage, FileContent> getIndexer() {
+        return inputData -> {
+            if (inputData instanceof PsiDependentFileContent) {
+                return collectUsages(((PsiDependentFileContent) inputData).getLighterAST());
+            }
+            PsiFile psiFile = inputData.getPsiFile();
+            if (psiFile instanceof PsiJavaFile) {
+                return collectUsages((PsiJavaFile) psiFile);
+            }
+            return Collections.emptyMap();
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<EndpointUsage> getValueExternalizer() {
+        return EndpointUsageExternalizer.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * 查詢類在項目中的使用次數
+     *
+     * @return 各文件計數之和，索引未就緒時返回空計數
+     */
+    public static EndpointUsage getUsage(Project project, PsiClass psiClass) {
+        EndpointUsage total = new EndpointUsage();
+        String qualifiedName = psiClass.getQualifiedName();
+        String simpleName = psiClass.getName();
+        if (qualifiedName == null || simpleName == null || DumbService.isDumb(project)) {
+            return total;
+        }
+
+        try {
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            FileBasedIndex index = FileBasedIndex.getInstance();
+            for (EndpointUsage usage : index.getValues(NAME, qualifiedName, scope)) {
+                total.add(usage);
+            }
+            if (!qualifiedName.equals(simpleName)) {
+                for (EndpointUsage usage : index.getValues(NAME, simpleName, scope)) {
+                    total.add(usage);
+                }
+            }
+        } catch (IndexNotReadyException e) {
+            return new EndpointUsage();
+        }
+        return total;
+    }
+
+    /**
+     * 統計已解析的 Java 文件中各類作為參數和返回值的使用次數
+     * <p>
+     * 以文件的語法樹構建輕量語法樹，與索引使用同一套統計邏輯，用於索引之外獨立解析的文件
+     * </p>
+     */
+    public static Map<String, EndpointUsage> collectUsages(PsiJavaFile javaFile) {
+        return collectUsages(new TreeBackedLighterAST(javaFile.getNode()));
+    }
+
+    /**
+     * 統計輕量語法樹中各類作為參數和返回值的使用次數
+     * <p>
+     * 只讀取語法結構，不做引用解析。自上而下遍歷一次，沿途記錄是否位於參數或返回值中，
+     * 以及所在方法是否為控制器方法，遇到方法或類時重新開始判斷
+     * </p>
+     */
+    public static Map<String, EndpointUsage> collectUsages(LighterAST tree) {
+        LighterASTNode root = tree.getRoot();
+        TypeNameResolver resolver = new TypeNameResolver(tree, root);
+        Map<String, EndpointUsage> result = new HashMap<>();
+
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root, null, Context.TOP_LEVEL));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            LighterASTNode node = frame.node;
+            IElementType type = node.getTokenType();
+            Context context = frame.context;
+
+            if (type == JavaElementType.METHOD || type == JavaElementType.ANNOTATION_METHOD) {
+                context = new Context(false, false, isControllerMethod(tree, node, context.classNode),
+                        context.classNode);
+            } else if (type == JavaElementType.CLASS || type == JavaElementType.ANONYMOUS_CLASS
+                    || type == JavaElementType.ENUM_CONSTANT_INITIALIZER) {
+                context = new Context(false, false, context.controllerMethod, node);
+            } else if (type == JavaElementType.TYPE_PARAMETER) {
+                context = new Context(false, false, context.controllerMethod, context.classNode);
+            } else if (type == JavaElementType.PARAMETER_LIST || type == JavaElementType.PARAMETER) {
+                context = context.withParameter();
+            } else if (type == JavaElementType.RETURN_STATEMENT) {
+                context = context.withReturnValue();
+            } else if (type == JavaElementType.TYPE && (frame.parentType == JavaElementType.METHOD
+                    || frame.parentType == JavaElementType.ANNOTATION_METHOD)) {
+                // 方法的返回類型
+                context = context.withReturnValue();
+            } else if (type == JavaElementType.JAVA_CODE_REFERENCE
+                    && frame.parentType != JavaElementType.JAVA_CODE_REFERENCE
+                    && frame.parentType != JavaElementType.ANNOTATION
+                    && (context.parameter || context.returnValue)) {
+                // 只處理完整的類型引用，跳過限定符和註解名稱
+                String key = resolver.resolve(node);
+                if (key != null) {
+                    EndpointUsage usage = result.computeIfAbsent(key, k -> new EndpointUsage());
+                    if (context.parameter) {
+                        usage.parameterCount++;
+                        if (context.controllerMethod) {
+                            usage.controllerParameterCount++;
+                        }
+                    }
+                    if (context.returnValue) {
+                        usage.returnValueCount++;
+                        if (context.controllerMethod) {
+                            usage.controllerReturnValueCount++;
+                        }
+                    }
+                }
+            }
+
+            List<LighterASTNode> children = tree.getChildren(node);
+            for (int index = children.size() - 1; index >= 0; index--) {
+                stack.push(new Frame(children.get(index), type, context));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 檢查方法是否為控制器方法，只比較註解的簡單名稱
+     *
+     * @param classNode 方法所在的類，可以為 null
+     */
+    private static boolean isControllerMethod(LighterAST tree, LighterASTNode method, LighterASTNode classNode) {
+        for (String name : getAnnotationNames(tree, method)) {
+            for (String mapping : MAPPING_ANNOTATIONS) {
+                if (name.contains(mapping)) {
+                    return true;
+                }
+            }
+        }
+
+        // 檢查類註解是否有@Controller或@RestController註解
+        if (classNode != null) {
+            for (String name : getAnnotationNames(tree, classNode)) {
+                if (name.contains("Controller")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 獲取方法或類的修飾符列表中各註解的簡單名稱
+     */
+    private static List<String> getAnnotationNames(LighterAST tree, LighterASTNode owner) {
+        LighterASTNode modifierList = LightTreeUtil.firstChildOfType(tree, owner, JavaElementType.MODIFIER_LIST);
+        if (modifierList == null) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        for (LighterASTNode annotation : LightTreeUtil.getChildrenOfType(tree, modifierList,
+                JavaElementType.ANNOTATION)) {
+            LighterASTNode nameReference = LightTreeUtil.firstChildOfType(tree, annotation,
+                    JavaElementType.JAVA_CODE_REFERENCE);
+            String name = nameReference != null ? getReferenceName(tree, nameReference) : null;
+            names.add(name != null ? name : "");
+        }
+        return names;
+    }
+
+    /**
+     * 獲取類型引用的名稱，即引用中最後一段的標識符
+     */
+    private static String getReferenceName(LighterAST tree, LighterASTNode reference) {
+        LighterASTNode identifier = LightTreeUtil.firstChildOfType(tree, reference, JavaTokenType.IDENTIFIER);
+        return identifier != null ? LightTreeUtil.toFilteredString(tree, identifier, null) : null;
+    }
+
+    /**
+     * 遍歷時待處理的節點
+     */
+    private static final class Frame {
+
+        private final LighterASTNode node;
+
+        /**
+         * 父節點的類型，根節點為 null
+         */
+        private final IElementType parentType;
+
+        private final Context context;
+
+        Frame(LighterASTNode node, IElementType parentType, Context context) {
+            this.node = node;
+            this.parentType = parentType;
+            this.context = context;
+        }
+    }
+
+    /**
+     * 節點所在的位置：是否位於參數或返回值中、所在方法是否為控制器方法、所在的類
+     */
+    private static final class Context {
+
+        static final Context TOP_LEVEL = new Context(false, false, false, null);
+
+        private final boolean parameter;
+
+        private final boolean returnValue;
+
+        private final boolean controllerMethod;
+
+        private final LighterASTNode classNode;
+
+        Context(boolean parameter, boolean returnValue, boolean controllerMethod, LighterASTNode classNode) {
+            this.parameter = parameter;
+            this.returnValue = returnValue;
+            this.controllerMethod = controllerMethod;
+            this.classNode = classNode;
+        }
+
+        Context withParameter() {
+            return parameter ? this : new Context(true, returnValue, controllerMethod, classNode);
+        }
+
+        Context withReturnValue() {
+            return returnValue ? this : new Context(parameter, true, controllerMethod, classNode);
+        }
+    }
+
+    /**
+     * 按文件的包名、導入語句和文件內聲明的類推斷類型引用的全限定名
+     */
+    private static class TypeNameResolver {
+
+        private final LighterAST tree;
+
+        private final String packagePrefix;
+
+        private final Map<String, String> explicitImports = new HashMap<>();
+
+        private final Map<String, String> declaredClasses = new HashMap<>();
+
+        private final boolean hasOnDemandImports;
+
+        TypeNameResolver(LighterAST tree, LighterASTNode root) {
+            this.tree = tree;
+            LighterASTNode packageStatement = LightTreeUtil.firstChildOfType(tree, root,
+                    JavaElementType.PACKAGE_STATEMENT);
+            LighterASTNode packageReference = packageStatement != null
+                    ? LightTreeUtil.firstChildOfType(tree, packageStatement, JavaElementType.JAVA_CODE_REFERENCE)
+                    : null;
+            String packageName = packageReference != null ? getText(packageReference) : "";
+            this.packagePrefix = packageName.isEmpty() ? "" : packageName + ".";
+
+            boolean onDemand = false;
+            LighterASTNode importList = LightTreeUtil.firstChildOfType(tree, root, JavaElementType.IMPORT_LIST);
+            if (importList != null) {
+                for (LighterASTNode importStatement : LightTreeUtil.getChildrenOfType(tree, importList,
+                        JavaElementType.IMPORT_STATEMENT)) {
+                    LighterASTNode importReference = LightTreeUtil.firstChildOfType(tree, importStatement,
+                            JavaElementType.JAVA_CODE_REFERENCE);
+                    if (importReference == null) {
+                        continue;
+                    }
+                    String importText = getText(importReference);
+                    if (LightTreeUtil.firstChildOfType(tree, importStatement, JavaTokenType.ASTERISK) != null) {
+                        // java.* 下沒有項目中的 DTO，不影響推斷
+                        onDemand |= !importText.startsWith("java.") && !importText.startsWith("javax.");
+                    } else {
+                        explicitImports.put(importText.substring(importText.lastIndexOf('.') + 1), importText);
+                    }
+                }
+            }
+            this.hasOnDemandImports = onDemand;
+
+            for (LighterASTNode classNode : LightTreeUtil.getChildrenOfType(tree, root, JavaElementType.CLASS)) {
+                collectDeclaredClasses(classNode, packagePrefix);
+            }
+        }
+
+        private void collectDeclaredClasses(LighterASTNode classNode, String prefix) {
+            LighterASTNode identifier = LightTreeUtil.firstChildOfType(tree, classNode, JavaTokenType.IDENTIFIER);
+            if (identifier == null) {
+                return;
+            }
+            String name = LightTreeUtil.toFilteredString(tree, identifier, null);
+            declaredClasses.putIfAbsent(name, prefix + name);
+            for (LighterASTNode innerClass : LightTreeUtil.getChildrenOfType(tree, classNode,
+                    JavaElementType.CLASS)) {
+                collectDeclaredClasses(innerClass, prefix + name + ".");
+            }
+        }
+
+        /**
+         * @return 推斷的全限定名，無法確定所屬包時返回簡單類名
+         */
+        String resolve(LighterASTNode reference) {
+            String name = getReferenceName(tree, reference);
+            if (name == null) {
+                return null;
+            }
+
+            LighterASTNode qualifier = LightTreeUtil.firstChildOfType(tree, reference,
+                    JavaElementType.JAVA_CODE_REFERENCE);
+            if (qualifier == null) {
+                return resolveSimpleName(name);
+            }
+
+            String qualifierText = stripTypeArguments(getText(qualifier));
+            String firstSegment = qualifierText.contains(".")
+                    ? qualifierText.substring(0, qualifierText.indexOf('.'))
+                    : qualifierText;
+            if (!firstSegment.isEmpty() && Character.isLowerCase(firstSegment.charAt(0))) {
+                // 以包名開頭的全限定引用
+                return qualifierText + "." + name;
+            }
+
+            // 外部類限定的嵌套類
+            String outer = resolveSimpleName(firstSegment);
+            return outer + qualifierText.substring(firstSegment.length()) + "." + name;
+        }
+
+        private String resolveSimpleName(String name) {
+            String declared = declaredClasses.get(name);
+            if (declared != null) {
+                return declared;
+            }
+            String imported = explicitImports.get(name);
+            if (imported != null) {
+                return imported;
+            }
+            return hasOnDemandImports ? name : packagePrefix + name;
+        }
+
+        /**
+         * 節點的文本，不含空白和註釋
+         */
+        private String getText(LighterASTNode node) {
+            return stripWhitespace(LightTreeUtil.toFilteredString(tree, node, ElementType.JAVA_COMMENT_BIT_SET));
+        }
+
+        private static String stripWhitespace(String text) {
+            StringBuilder builder = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    builder.append(c);
+                }
+            }
+            return builder.toString();
+        }
+
+        private static String stripTypeArguments(String text) {
+            int index = text.indexOf('<');
+            if (index < 0) {
+                return text;
+            }
+            StringBuilder builder = new StringBuilder(text.length());
+            int depth = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '<') {
+                    depth++;
+                } else if (c == '>') {
+                    depth--;
+                } else if (depth == 0) {
+                    builder.append(c);
+                }
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * 單個類的使用次數
+     */
+    public static final class EndpointUsage {
+        public int parameterCount;
+        public int returnValueCount;
+        public int controllerParameterCount;
+        public int controllerReturnValueCount;
+
+        public void add(EndpointUsage other) {
+            parameterCount += other.parameterCount;
+            returnValueCount += other.returnValueCount;
+            controllerParameterCount += other.controllerParameterCount;
+            controllerReturnValueCount += other.controllerReturnValueCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EndpointUsage)) {
+                return false;
+            }
+            EndpointUsage that = (EndpointUsage) o;
+            return parameterCount == that.parameterCount
+                    && returnValueCount == that.returnValueCount
+                    && controllerParameterCount == that.controllerParameterCount
+                    && controllerReturnValueCount == that.controllerReturnValueCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(parameterCount, returnValueCount, controllerParameterCount, controllerReturnValueCount);
+        }
+    }
+
+    private static final class EndpointUsageExternalizer implements DataExternalizer<EndpointUsage> {
+
+        static final EndpointUsageExternalizer INSTANCE = new EndpointUsageExternalizer();
+
+        @Override
+        public void save(@NotNull DataOutput out, EndpointUsage value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.parameterCount);
+            DataInputOutputUtil.writeINT(out, value.returnValueCount);
+            DataInputOutputUtil.writeINT(out, value.controllerParameterCount);
+            DataInputOutputUtil.writeINT(out, value.controllerReturnValueCount);
+        }
+
+        @Override
+        public EndpointUsage read(@NotNull DataInput in) throws IOException {
+            EndpointUsage usage = new EndpointUsage();
+            usage.parameterCount = DataInputOutputUtil.readINT(in);
+            usage.returnValueCount = DataInputOutputUtil.readINT(in);
+            usage.controllerParameterCount = DataInputOutputUtil.readINT(in);
+            usage.controllerReturnValueCount = DataInputOutputUtil.readINT(in);
+            return usage;
+        }
+    }
+}
@@ -5,20 +5,27 @@ import com.intellij.codeInsight.intention.PsiElementBaseIntentionAction;
 import com.intellij.notification.Notification;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.ui.popup.JBPopupFactory;
 import com.intellij.openapi.ui.popup.ListPopup;
 import com.intellij.openapi.ui.popup.PopupStep;
 import com.intellij.openapi.ui.popup.util.BaseListPopupStep;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
+import org.freeone.javabean.tsinterface.service.DtoDetector;
 import org.freeone.javabean.tsinterface.service.DtoTypescriptGeneratorService;
-import org.freeone.javabean.tsinterface.setting.JavaBeanToTypescriptInterfaceProjectSettings;
+import org.freeone.javabean.tsinterface.service.GenerationHistoryService;
+import org.freeone.javabean.tsinterface.service.TsOutputSyncService;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
 import org.freeone.javabean.tsinterface.swing.TypescriptInterfaceShowerWrapper;
-import org.freeone.javabean.tsinterface.util.CommonUtils;
 import org.freeone.javabean.tsinterface.util.TransactionCodeExtractor;
 import org.freeone.javabean.tsinterface.util.TypescriptContentGenerator;
 import org.jetbrains.annotations.NotNull;
@@ -28,16 +35,22 @@ import java.awt.*;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
 import java.awt.datatransfer.Transferable;
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * 用於檢測方法簽名中的 DTO 類並提供生成 TypeScript 接口的選項
  */
 public class GenerateDtoTsInterfaceIntention extends PsiElementBaseIntentionAction implements IntentionAction {
 
+    private static final Logger LOG = Logger.getInstance(GenerateDtoTsInterfaceIntention.class);
+
     @Override
     public void invoke(@NotNull Project project, Editor editor, @NotNull PsiElement element)
             throws IncorrectOperationException {
@@ -46,102 +59,154 @@ public class GenerateDtoTsInterfaceIntention extends PsiElementBaseIntentionActi
             return; // 預覽模式下不執行實際操作
         }
 
-        // 確保模型讀取在讀取線程中執行
-        ReadAction.run(() -> {
-            // 尋找包含當前元素的方法聲明
-            PsiMethod method = PsiTreeUtil.getParentOfType(element, PsiMethod.class);
-            if (method == null) {
-                return;
-            }
-            String transactionCode = CommonUtils.getSettings().isUseTransactionCodePrefix() ?
-                    TransactionCodeExtractor.extractTransactionCode(method) : null;
-
-            // 收集所有需要處理的 DTO 類
-            List<PsiClass> dtoClasses = collectDtoClasses(method);
-            if (dtoClasses.isEmpty()) {
-                ApplicationManager.getApplication().invokeLater(
-                        () -> Messages.showMessageDialog("沒有找到要處理的 DTO 類", "提示", Messages.getInformationIcon()));
-                return;
-            }
+        // 尋找包含當前元素的方法聲明
+        PsiMethod method = PsiTreeUtil.getParentOfType(element, PsiMethod.class);
+        if (method == null) {
+            return;
+        }
+        SmartPsiElementPointer<PsiMethod> methodPointer = SmartPointerManager.createPointer(method);
+
+        // 在後台任務中生成，不阻塞 EDT，完成後再顯示操作選項
+        new Task.Backgroundable(project, "生成 TypeScript 接口", true) {
+
+            private final Map<String, String> contentMap = new LinkedHashMap<>();
+
+            private final Map<String, String> rootClassMap = new LinkedHashMap<>();
+
+            private final Map<String, Set<String>> includedClassesMap = new LinkedHashMap<>();
+
+            /**
+             * 同一會話中的所有根類，嵌套類和重名類的命名依賴這個集合，自動更新時使用同一集合重新生成
+             */
+            private List<String> sessionRoots = List.of();
 
-            // 生成 TypeScript 接口
-            Map<String, String> contentMap = new HashMap<>();
-            for (PsiClass psiClass : dtoClasses) {
+            private String mergedContent;
+
+            private String transactionCode;
+
+            /**
+             * 本次生成使用的設定快照，記錄到跟蹤的文件中
+             */
+            private GenerationOptions options;
+
+            private boolean dtoClassFound;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                // 收集所有需要處理的 DTO 類
+                options = GenerationOptions.current();
+                List<PsiClass> dtoClasses = ReadAction.compute(() -> {
+                    PsiMethod currentMethod = methodPointer.getElement();
+                    if (currentMethod == null) {
+                        return new ArrayList<PsiClass>();
+                    }
+                    transactionCode = options.isUseTransactionCodePrefix() ?
+                            TransactionCodeExtractor.extractTransactionCode(currentMethod) : null;
+                    return DtoDetector.getInstance(project).collectDtoClasses(currentMethod);
+                });
+                dtoClassFound = !dtoClasses.isEmpty();
+                if (!dtoClassFound) {
+                    return;
+                }
+
+                // 所有 DTO 在同一個會話中生成，共同依賴的類只解析一次，合併內容中也只出現一次
+                // 解析在可重啟的非阻塞讀操作中進行，渲染時不持有讀鎖
                 try {
-                    // 創建 TypescriptContentGenerator 實例
-                    TypescriptContentGenerator generator = new TypescriptContentGenerator(project, transactionCode);
-                    generator.processPsiClass(psiClass, false);
-                    String content = generator.mergeContent(psiClass, false);
-                    contentMap.put(psiClass.getName(), content);
-                    // 不再需要 clearCache 調用，因為每個實例都有自己的狀態
+                    TypescriptContentGenerator generator = DtoTypescriptGeneratorService.resolveClassesForEditor(
+                            project, new ArrayList<>(new LinkedHashSet<>(dtoClasses)), transactionCode, options);
+                    sessionRoots = List.copyOf(generator.getRootClassNames());
+                    for (String rootClassName : generator.getRootClassNames()) {
+                        String content = generator.renderContent(rootClassName);
+                        if (!content.isEmpty()) {
+                            String fileName = StringUtil.getShortName(rootClassName);
+                            contentMap.put(fileName, content);
+                            rootClassMap.put(fileName, rootClassName);
+                            includedClassesMap.put(fileName, generator.getClassesOfRoot(rootClassName));
+                        }
+                    }
+                    mergedContent = generator.renderContent();
+                    GenerationHistoryService.getInstance(project).record(List.of(generator.getReport()));
+                } catch (ProcessCanceledException e) {
+                    throw e;
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    LOG.warn("生成 TypeScript 接口時發生錯誤", e);
                 }
             }
 
-            if (contentMap.isEmpty()) {
-                ApplicationManager.getApplication().invokeLater(
-                        () -> Messages.showMessageDialog("生成 TypeScript 接口失敗", "錯誤", Messages.getErrorIcon()));
-                return;
+            @Override
+            public void onSuccess() {
+                if (!dtoClassFound) {
+                    Messages.showMessageDialog("沒有找到要處理的 DTO 類", "提示", Messages.getInformationIcon());
+                } else if (contentMap.isEmpty()) {
+                    Messages.showMessageDialog("生成 TypeScript 接口失敗", "錯誤", Messages.getErrorIcon());
+                } else if (!editor.isDisposed()) {
+                    showActionPopup(project, editor, contentMap, rootClassMap, mergedContent, transactionCode,
+                            this::trackSavedFile);
+                }
             }
 
-            // 合併內容
-            final String mergedContent = mergeContent(contentMap);
-            final Map<String, String> finalContentMap = contentMap;
+            /**
+             * 記住保存的文件，DTO 修改後自動更新
+             */
+            private void trackSavedFile(String fileName, File file) {
+                TsOutputSyncService.getInstance(project).remember(file.getPath(), rootClassMap.get(fileName),
+                        transactionCode, includedClassesMap.get(fileName), sessionRoots, options);
+            }
+        }.queue();
+    }
 
-            // 所有 UI 操作必須在 EDT 中執行
-            ApplicationManager.getApplication().invokeLater(() -> {
-                // 顯示選項菜單
-                List<String> options = List.of("保存到文件", "複製到剪貼板", "在文本框中編輯");
-                ListPopup popup = JBPopupFactory.getInstance().createListPopup(
-                        new BaseListPopupStep<>("選擇操作", options) {
-                            @Override
-                            public @Nullable PopupStep<?> onChosen(String selectedValue, boolean finalChoice) {
-                                return doFinalStep(() -> {
+    /**
+     * 顯示保存、複製和編輯的選項菜單，需在 EDT 中調用
+     * <p>
+     * 保存時每個 DTO 一個文件，複製和編輯使用共同類只出現一次的合併內容
+     * </p>
+     */
+    private void showActionPopup(Project project, Editor editor, Map<String, String> contentMap,
+                                 Map<String, String> rootClassMap, String mergedContent, String transactionCode,
+                                 BiConsumer<String, File> savedFileConsumer) {
+        List<String> options = List.of("保存到文件", "複製到剪貼板", "在文本框中編輯");
+        ListPopup popup = JBPopupFactory.getInstance().createListPopup(
+                new BaseListPopupStep<>("選擇操作", options) {
+                    @Override
+                    public @Nullable PopupStep<?> onChosen(String selectedValue, boolean finalChoice) {
+                        return doFinalStep(() -> {
+                            try {
+                                // 使用 invokeLater 確保 UI 操作在 EDT 上執行，並且在 popup 關閉後執行
+                                // 使用 defaultModalityState 而不是 ANY 以避免 TransactionGuard 錯誤
+                                ApplicationManager.getApplication().invokeLater(() -> {
                                     try {
-                                        // 使用 invokeLater 確保 UI 操作在 EDT 上執行，並且在 popup 關閉後執行
-                                        // 使用 defaultModalityState 而不是 ANY 以避免 TransactionGuard 錯誤
-                                        ApplicationManager.getApplication().invokeLater(() -> {
-                                            try {
-                                                if (selectedValue.equals("保存到文件")) {
-                                                    DtoTypescriptGeneratorService.saveToFiles(project, finalContentMap);
-                                                } else if (selectedValue.equals("複製到剪貼板")) {
-                                                    copyToClipboard(project, mergedContent);
-                                                } else if (selectedValue.equals("在文本框中編輯")) {
-                                                    // 使用帶有類名支持的顯示方法
-                                                    DtoTypescriptGeneratorService.showInTextEditor(project,
-                                                            finalContentMap, transactionCode);
-                                                }
-                                            } catch (Exception e) {
-                                                // 捕獲並記錄任何執行操作時的錯誤
-                                                System.err.println("執行所選操作時發生錯誤: " + e.getMessage());
-                                                e.printStackTrace();
-                                            }
-                                        }, com.intellij.openapi.application.ModalityState.defaultModalityState());
+                                        if (selectedValue.equals("保存到文件")) {
+                                            DtoTypescriptGeneratorService.saveToFiles(project, contentMap,
+                                                    rootClassMap, savedFileConsumer);
+                                        } else if (selectedValue.equals("複製到剪貼板")) {
+                                            copyToClipboard(project, mergedContent);
+                                        } else if (selectedValue.equals("在文本框中編輯")) {
+                                            // 使用帶有類名支持的顯示方法
+                                            DtoTypescriptGeneratorService.showInTextEditor(project,
+                                                    mergedContent, transactionCode);
+                                        }
                                     } catch (Exception e) {
-                                        // 捕獲並記錄任何在設置 invokeLater 時的錯誤
-                                        System.err.println("設置操作執行時發生錯誤: " + e.getMessage());
-                                        e.printStackTrace();
+                                        // 捕獲並記錄任何執行操作時的錯誤
+                                        LOG.warn("執行所選操作時發生錯誤", e);
                                     }
-                                });
+                                }, com.intellij.openapi.application.ModalityState.defaultModalityState());
+                            } catch (Exception e) {
+                                // 捕獲並記錄任何在設置 invokeLater 時的錯誤
+                                LOG.warn("設置操作執行時發生錯誤", e);
                             }
                         });
+                    }
+                });
 
-                popup.showInBestPositionFor(editor);
-            });
-        });
+        popup.showInBestPositionFor(editor);
     }
 
-    private String mergeContent(Map<String, String> contentMap) {
-        if (contentMap.size() == 1) {
-            return contentMap.values().iterator().next();
-        } else {
-            StringBuilder mergedContent = new StringBuilder();
-            for (Map.Entry<String, String> entry : contentMap.entrySet()) {
-                mergedContent.append(entry.getValue()).append("\n\n");
-            }
-            return mergedContent.toString();
-        }
+    /**
+     * 生成在後台任務中進行，不需要寫操作
+     */
+    @Override
+    public boolean startInWriteAction() {
+        return false;
     }
 
     private void copyToClipboard(Project project, String content) {
@@ -202,159 +267,6 @@ public class GenerateDtoTsInterfaceIntention extends PsiElementBaseIntentionActi
         return classNames.toString();
     }
 
-    /**
-     * 收集方法簽名中的所有 DTO 類
-     */
-    private List<PsiClass> collectDtoClasses(PsiMethod method) {
-        return ReadAction.compute(() -> {
-            List<PsiClass> dtoClasses = new ArrayList<>();
-
-            // 檢查參數類型
-            PsiParameter[] parameters = method.getParameterList().getParameters();
-            for (PsiParameter parameter : parameters) {
-                PsiType parameterType = parameter.getType();
-                addDtoClassesFromType(parameterType, dtoClasses);
-            }
-
-            // 檢查返回類型
-            PsiType returnType = method.getReturnType();
-            if (returnType != null) {
-                addDtoClassesFromType(returnType, dtoClasses);
-            }
-
-            return dtoClasses;
-        });
-    }
-
-    /**
-     * 從類型中提取 DTO 類
-     */
-    private void addDtoClassesFromType(PsiType type, List<PsiClass> dtoClasses) {
-        // 處理泛型類型
-        if (type instanceof PsiClassType) {
-            PsiClassType classType = (PsiClassType) type;
-            PsiClass psiClass = ReadAction.compute(() -> classType.resolve());
-
-            if (psiClass != null && isDtoClass(psiClass)) {
-                dtoClasses.add(psiClass);
-            }
-
-            // 處理泛型參數
-            PsiType[] parameters = classType.getParameters();
-            for (PsiType parameter : parameters) {
-                addDtoClassesFromType(parameter, dtoClasses);
-            }
-        }
-    }
-
-    /**
-     * 判斷一個類是否為 DTO 類
-     */
-    private boolean isDtoClass(PsiClass psiClass) {
-        // 確保不是接口、枚舉或註解
-        if (psiClass.isInterface() || psiClass.isEnum() || psiClass.isAnnotationType()) {
-            return false;
-        }
-
-        // 獲取類名
-        String className = psiClass.getName();
-        if (className == null) {
-            return false;
-        }
-
-        System.out.println("Intention檢查類是否為DTO: " + className);
-
-        // 大小寫不敏感的檢查
-        String lowerClassName = className.toLowerCase();
-
-        // 檢查是否包含Qrystatement、Query或Qry
-        if (lowerClassName.contains("qrystatement") ||
-                lowerClassName.contains("qry") ||
-                lowerClassName.contains("query")) {
-            System.out.println("  Intention匹配到查詢關鍵字: " + className);
-            return true;
-        }
-
-        // 獲取項目設置
-        Project project = psiClass.getProject();
-        JavaBeanToTypescriptInterfaceProjectSettings settings = CommonUtils.getProjectSettings(project);
-
-        // 輸出調試信息
-        System.out.println("  Intention當前項目設置中請求DTO後綴: " + settings.getEffectiveRequestDtoSuffixes());
-        System.out.println("  Intention當前項目設置中響應DTO後綴: " + settings.getEffectiveResponseDtoSuffixes());
-
-        // 檢查是否包含常見的DTO相關詞
-        if (lowerClassName.contains("dto") ||
-                lowerClassName.contains("model") ||
-                lowerClassName.contains("bean") ||
-                lowerClassName.contains("vo") ||
-                lowerClassName.contains("entity") ||
-                lowerClassName.contains("request") ||
-                lowerClassName.contains("response") ||
-                lowerClassName.contains("result")) {
-            System.out.println("  Intention匹配到常見DTO關鍵字: " + className);
-            return true;
-        }
-
-        // 檢查請求DTO後綴
-        List<String> requestSuffixes = settings.getEffectiveRequestDtoSuffixes();
-        for (String suffix : requestSuffixes) {
-            if (className.endsWith(suffix)) {
-                System.out.println("  Intention匹配到請求DTO後綴 " + suffix + ": " + className);
-                return true;
-            }
-        }
-
-        // 檢查響應DTO後綴
-        List<String> responseSuffixes = settings.getEffectiveResponseDtoSuffixes();
-        for (String suffix : responseSuffixes) {
-            if (className.endsWith(suffix)) {
-                System.out.println("  Intention匹配到響應DTO後綴 " + suffix + ": " + className);
-                return true;
-            }
-        }
-
-        // 如果後綴檢查沒通過，則檢查類結構
-        boolean isDto = checkClassStructure(psiClass);
-        System.out.println("  Intention基於類結構判斷 " + className + " 是否為DTO: " + isDto);
-        return isDto;
-    }
-
-    /**
-     * 根據類結構判斷是否為DTO類
-     */
-    private boolean checkClassStructure(PsiClass psiClass) {
-        // 檢查類中是否存在公開的字段或者 getter/setter 方法
-        // 通常 DTO 類會包含多個公開字段或 getter/setter 方法
-        PsiField[] fields = psiClass.getFields();
-        if (fields.length > 0) {
-            int publicFieldCount = 0;
-            for (PsiField field : fields) {
-                if (field.hasModifierProperty(PsiModifier.PUBLIC)) {
-                    publicFieldCount++;
-                }
-            }
-            // 如果有多個公開字段，可能是數據傳輸對象
-            if (publicFieldCount > 2) {
-                return true;
-            }
-        }
-
-        // 檢查 getter/setter 方法
-        PsiMethod[] methods = psiClass.getMethods();
-        int getterSetterCount = 0;
-        for (PsiMethod method : methods) {
-            String methodName = method.getName();
-            if ((methodName.startsWith("get") || methodName.startsWith("set")) &&
-                    methodName.length() > 3 &&
-                    Character.isUpperCase(methodName.charAt(3))) {
-                getterSetterCount++;
-            }
-        }
-        // 如果有多個 getter/setter 方法，可能是 DTO
-        return getterSetterCount > 3;
-    }
-
     @Override
     public boolean isAvailable(@NotNull Project project, Editor editor, @NotNull PsiElement element) {
         // 檢查是否在方法聲明中
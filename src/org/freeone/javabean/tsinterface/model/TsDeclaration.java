@@ -0,0 +1,62 @@
+package org.freeone.javabean.tsinterface.model;
+
+import java.util.Set;
+
+/**
+ * TypeScript 頂層聲明
+ * 在遍歷 Java 類時建立一次，之後的改名只修改符號表，不再改寫已生成的文本
+ */
+public abstract class TsDeclaration {
+
+    /**
+     * 對應 Java 類的全限定名，同時作為此聲明的符號
+     */
+    private final String qualifiedName;
+
+    /**
+     * Java 類的簡單名稱
+     */
+    private final String javaName;
+
+    /**
+     * 已清理的類註釋內容，無註釋時為空字串
+     */
+    private final String comment;
+
+    protected TsDeclaration(String qualifiedName, String javaName, String comment) {
+        this.qualifiedName = qualifiedName;
+        this.javaName = javaName;
+        this.comment = comment != null ? comment : "";
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getJavaName() {
+        return javaName;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * 此聲明直接引用的類全限定名
+     */
+    public abstract Set<String> getReferencedClasses();
+
+    /**
+     * 是否直接引用了指定的類
+     */
+    public boolean references(String qualifiedName) {
+        return getReferencedClasses().contains(qualifiedName);
+    }
+
+    /**
+     * 是否帶有泛型參數
+     */
+    public boolean hasTypeParameters() {
+        return false;
+    }
+}
@@ -0,0 +1,111 @@
+package org.freeone.javabean.tsinterface.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * 將聲明模型一次性渲染為 TypeScript 文本
+ * <p>
+ * 寫入 Appendable 時逐個聲明輸出，內存中只保留當前聲明的文本
+ * </p>
+ */
+public class TsDeclarationRenderer {
+
+    private final TsSymbolTable symbols;
+
+    public TsDeclarationRenderer(TsSymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * 渲染多個聲明，聲明之間以換行分隔
+     */
+    public String render(List<? extends TsDeclaration> declarations) {
+        StringBuilder out = new StringBuilder();
+        try {
+            render(declarations, out);
+        } catch (IOException e) {
+            // StringBuilder 不會拋出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 渲染多個聲明並逐個寫入輸出，聲明之間以換行分隔
+     */
+    public void render(List<? extends TsDeclaration> declarations, Appendable out) throws IOException {
+        StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < declarations.size(); i++) {
+            if (i > 0) {
+                buffer.append("\n");
+            }
+            render(declarations.get(i), buffer);
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * 渲染單個聲明
+     */
+    public void render(TsDeclaration declaration, StringBuilder out) {
+        if (!declaration.getComment().isEmpty()) {
+            out.append("/**\n * ").append(declaration.getComment()).append("\n */\n");
+        }
+        out.append("export ");
+
+        String name = symbols.resolve(declaration.getQualifiedName());
+        if (declaration instanceof TsInterfaceDeclaration) {
+            renderInterface((TsInterfaceDeclaration) declaration, name, out);
+        } else if (declaration instanceof TsEnumDeclaration) {
+            renderEnum((TsEnumDeclaration) declaration, name, out);
+        }
+    }
+
+    private void renderInterface(TsInterfaceDeclaration declaration, String name, StringBuilder out) {
+        out.append("interface ").append(name);
+        List<String> typeParameters = declaration.getTypeParameters();
+        if (!typeParameters.isEmpty()) {
+            out.append("<").append(String.join(", ", typeParameters)).append(">");
+        }
+        if (declaration.getSuperType() != null) {
+            // 父類被跳過時引用輸出為 any，不能作為 extends 的目標
+            StringBuilder superType = new StringBuilder();
+            declaration.getSuperType().render(superType, symbols);
+            if (!"any".contentEquals(superType)) {
+                out.append(" extends ").append(superType);
+            }
+        }
+        out.append(" {\n");
+
+        List<TsField> fields = declaration.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            TsField field = fields.get(i);
+            if (i > 0) {
+                out.append("\n");
+            }
+            if (!field.getComment().isEmpty()) {
+                out.append("  /**\n   * ").append(field.getComment()).append("\n   */\n");
+            }
+            out.append("  ").append(field.getName()).append(field.isOptional() ? "?: " : ": ");
+            field.getType().render(out, symbols);
+            out.append(";\n");
+        }
+
+        out.append("}\n");
+    }
+
+    private void renderEnum(TsEnumDeclaration declaration, String name, StringBuilder out) {
+        out.append("type ").append(name).append(" = ");
+        List<String> constants = declaration.getConstants();
+        for (int i = 0; i < constants.size(); i++) {
+            if (i > 0) {
+                out.append(" | ");
+            }
+            out.append("'").append(constants.get(i)).append("'");
+        }
+        out.append(";\n");
+    }
+}
@@ -0,0 +1,27 @@
+package org.freeone.javabean.tsinterface.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TypeScript 字面量聯合類型聲明，對應 Java 的枚舉
+ */
+public final class TsEnumDeclaration extends TsDeclaration {
+
+    private final List<String> constants;
+
+    public TsEnumDeclaration(String qualifiedName, String javaName, String comment, List<String> constants) {
+        super(qualifiedName, javaName, comment);
+        this.constants = List.copyOf(constants);
+    }
+
+    public List<String> getConstants() {
+        return constants;
+    }
+
+    @Override
+    public Set<String> getReferencedClasses() {
+        return Collections.emptySet();
+    }
+}
@@ -0,0 +1,41 @@
+package org.freeone.javabean.tsinterface.model;
+
+/**
+ * TypeScript 介面中的屬性
+ */
+public final class TsField {
+
+    private final String name;
+
+    private final boolean optional;
+
+    private final TsTypeRef type;
+
+    /**
+     * 已清理的註釋內容，無註釋時為空字串
+     */
+    private final String comment;
+
+    public TsField(String name, boolean optional, TsTypeRef type, String comment) {
+        this.name = name;
+        this.optional = optional;
+        this.type = type;
+        this.comment = comment != null ? comment : "";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    public TsTypeRef getType() {
+        return type;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+}
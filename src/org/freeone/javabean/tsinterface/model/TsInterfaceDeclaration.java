@@ -0,0 +1,70 @@
+package org.freeone.javabean.tsinterface.model;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TypeScript 介面聲明，對應 Java 的普通類
+ */
+public final class TsInterfaceDeclaration extends TsDeclaration {
+
+    private final List<String> typeParameters;
+
+    private final TsTypeRef superType;
+
+    private final List<TsField> fields;
+
+    private final Set<String> referencedClasses;
+
+    public TsInterfaceDeclaration(String qualifiedName, String javaName, String comment,
+                                  List<String> typeParameters, List<TsField> fields) {
+        this(qualifiedName, javaName, comment, typeParameters, null, fields);
+    }
+
+    /**
+     * @param superType 父類接口的引用，為 null 時不輸出 extends
+     */
+    public TsInterfaceDeclaration(String qualifiedName, String javaName, String comment,
+                                  List<String> typeParameters, TsTypeRef superType, List<TsField> fields) {
+        super(qualifiedName, javaName, comment);
+        this.typeParameters = List.copyOf(typeParameters);
+        this.superType = superType;
+        this.fields = List.copyOf(fields);
+
+        Set<String> references = new LinkedHashSet<>();
+        if (superType != null) {
+            superType.collectReferences(references);
+        }
+        for (TsField field : this.fields) {
+            field.getType().collectReferences(references);
+        }
+        this.referencedClasses = Collections.unmodifiableSet(references);
+    }
+
+    public List<String> getTypeParameters() {
+        return typeParameters;
+    }
+
+    /**
+     * 父類接口的引用，未保留繼承關係時為 null
+     */
+    public TsTypeRef getSuperType() {
+        return superType;
+    }
+
+    public List<TsField> getFields() {
+        return fields;
+    }
+
+    @Override
+    public Set<String> getReferencedClasses() {
+        return referencedClasses;
+    }
+
+    @Override
+    public boolean hasTypeParameters() {
+        return !typeParameters.isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package org.freeone.javabean.tsinterface.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 符號表：類全限定名到 TypeScript 名稱的映射
+ * 改名和跳過都只修改這裡，所有引用在渲染時統一解析
+ */
+public class TsSymbolTable {
+
+    private final Map<String, String> names = new HashMap<>();
+
+    private final Set<String> skipped = new HashSet<>();
+
+    /**
+     * 設定或修改類對應的 TypeScript 名稱
+     */
+    public void define(String qualifiedName, String tsName) {
+        names.put(qualifiedName, tsName);
+    }
+
+    /**
+     * 獲取類對應的 TypeScript 名稱，未定義時返回 null
+     */
+    public String getName(String qualifiedName) {
+        return names.get(qualifiedName);
+    }
+
+    /**
+     * 所有已定義的名稱（只讀）
+     */
+    public Map<String, String> getNames() {
+        return Collections.unmodifiableMap(names);
+    }
+
+    /**
+     * 標記類為跳過，對它的引用會輸出為 any
+     */
+    public void markSkipped(String qualifiedName) {
+        skipped.add(qualifiedName);
+    }
+
+    public boolean isSkipped(String qualifiedName) {
+        return skipped.contains(qualifiedName);
+    }
+
+    /**
+     * 解析引用在輸出中的名稱
+     */
+    public String resolve(String qualifiedName) {
+        if (skipped.contains(qualifiedName)) {
+            return "any";
+        }
+        String name = names.get(qualifiedName);
+        if (name != null) {
+            return name;
+        }
+        int lastDotIndex = qualifiedName.lastIndexOf('.');
+        return lastDotIndex > 0 ? qualifiedName.substring(lastDotIndex + 1) : qualifiedName;
+    }
+
+    public void clear() {
+        names.clear();
+        skipped.clear();
+    }
+}
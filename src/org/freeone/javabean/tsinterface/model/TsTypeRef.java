@@ -0,0 +1,175 @@
+package org.freeone.javabean.tsinterface.model;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TypeScript 類型引用
+ * 對其他聲明的引用只記錄類的全限定名（符號），名稱在最終渲染時才從符號表解析
+ */
+public abstract class TsTypeRef {
+
+    public static final TsTypeRef ANY = keyword("any");
+
+    public static final TsTypeRef UNKNOWN = keyword("unknown");
+
+    public static final TsTypeRef NUMBER = keyword("number");
+
+    public static final TsTypeRef STRING = keyword("string");
+
+    public static final TsTypeRef BOOLEAN = keyword("boolean");
+
+    /**
+     * 關鍵字或泛型參數名稱，原樣輸出
+     */
+    public static TsTypeRef keyword(String text) {
+        return new Keyword(text);
+    }
+
+    /**
+     * 數組類型，輸出為 X[]
+     */
+    public static TsTypeRef arrayOf(TsTypeRef elementType) {
+        return new ArrayOf(elementType);
+    }
+
+    /**
+     * 映射類型，輸出為 {[x:string]: X}
+     */
+    public static TsTypeRef indexSignature(TsTypeRef valueType) {
+        return new IndexSignature(valueType);
+    }
+
+    /**
+     * 對另一個類聲明的引用
+     */
+    public static TsTypeRef reference(String qualifiedName) {
+        return new Reference(qualifiedName);
+    }
+
+    /**
+     * 對泛型類聲明的引用，輸出為 X<A, B>，泛型類本身只聲明一次
+     */
+    public static TsTypeRef generic(String qualifiedName, List<TsTypeRef> typeArguments) {
+        return new Generic(qualifiedName, typeArguments);
+    }
+
+    /**
+     * 輸出類型文本
+     */
+    public abstract void render(StringBuilder out, TsSymbolTable symbols);
+
+    /**
+     * 收集此類型中引用到的類全限定名
+     */
+    public abstract void collectReferences(Set<String> into);
+
+    static final class Keyword extends TsTypeRef {
+        private final String text;
+
+        Keyword(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(StringBuilder out, TsSymbolTable symbols) {
+            out.append(text);
+        }
+
+        @Override
+        public void collectReferences(Set<String> into) {
+        }
+    }
+
+    static final class ArrayOf extends TsTypeRef {
+        private final TsTypeRef elementType;
+
+        ArrayOf(TsTypeRef elementType) {
+            this.elementType = elementType;
+        }
+
+        @Override
+        public void render(StringBuilder out, TsSymbolTable symbols) {
+            elementType.render(out, symbols);
+            out.append("[]");
+        }
+
+        @Override
+        public void collectReferences(Set<String> into) {
+            elementType.collectReferences(into);
+        }
+    }
+
+    static final class IndexSignature extends TsTypeRef {
+        private final TsTypeRef valueType;
+
+        IndexSignature(TsTypeRef valueType) {
+            this.valueType = valueType;
+        }
+
+        @Override
+        public void render(StringBuilder out, TsSymbolTable symbols) {
+            out.append("{[x:string]: ");
+            valueType.render(out, symbols);
+            out.append("}");
+        }
+
+        @Override
+        public void collectReferences(Set<String> into) {
+            valueType.collectReferences(into);
+        }
+    }
+
+    static final class Reference extends TsTypeRef {
+        private final String qualifiedName;
+
+        Reference(String qualifiedName) {
+            this.qualifiedName = qualifiedName;
+        }
+
+        @Override
+        public void render(StringBuilder out, TsSymbolTable symbols) {
+            out.append(symbols.resolve(qualifiedName));
+        }
+
+        @Override
+        public void collectReferences(Set<String> into) {
+            into.add(qualifiedName);
+        }
+    }
+
+    static final class Generic extends TsTypeRef {
+        private final String qualifiedName;
+        private final List<TsTypeRef> typeArguments;
+
+        Generic(String qualifiedName, List<TsTypeRef> typeArguments) {
+            this.qualifiedName = qualifiedName;
+            this.typeArguments = List.copyOf(typeArguments);
+        }
+
+        @Override
+        public void render(StringBuilder out, TsSymbolTable symbols) {
+            out.append(symbols.resolve(qualifiedName));
+            // 被跳過的類輸出為 any，不能再帶類型參數
+            if (symbols.isSkipped(qualifiedName)) {
+                return;
+            }
+            out.append("<");
+            for (int index = 0; index < typeArguments.size(); index++) {
+                if (index > 0) {
+                    out.append(", ");
+                }
+                typeArguments.get(index).render(out, symbols);
+            }
+            out.append(">");
+        }
+
+        @Override
+        public void collectReferences(Set<String> into) {
+            into.add(qualifiedName);
+            for (TsTypeRef typeArgument : typeArguments) {
+                typeArgument.collectReferences(into);
+            }
+        }
+    }
+}
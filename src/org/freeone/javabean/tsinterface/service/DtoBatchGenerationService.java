@@ -0,0 +1,532 @@
+package org.freeone.javabean.tsinterface.service;
+
+import com.intellij.concurrency.SensitiveProgressWrapper;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.util.ThrowableConsumer;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.freeone.javabean.tsinterface.index.DtoEndpointUsageIndex;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
+import org.freeone.javabean.tsinterface.util.CommonUtils;
+import org.freeone.javabean.tsinterface.util.GenerationReport;
+import org.freeone.javabean.tsinterface.util.IncrementalTsWriter;
+import org.freeone.javabean.tsinterface.util.TypescriptContentGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 批量生成 TypeScript 接口
+ * <p>
+ * 從選中的文件、包和模塊中找出所有 DTO 類，分組後在插件的有界線程池中並行解析，
+ * 同一組的類在一個生成會話中共享已解析的聲明，全部完成後統一寫入目標文件夾
+ * </p>
+ */
+public final class DtoBatchGenerationService {
+
+    private static final Logger LOG = Logger.getInstance(DtoBatchGenerationService.class);
+
+    /**
+     * 等待並行任務時檢查取消的間隔
+     */
+    private static final int POLL_INTERVAL_MS = 50;
+
+    /**
+     * 每個生成會話最多包含的根類數量，限制單個會話在內存中保留的聲明數量
+     */
+    private static final int MAX_ROOTS_PER_SESSION = 200;
+
+    private DtoBatchGenerationService() {
+    }
+
+    /**
+     * 獲取模塊的源碼根目錄，不包含測試源碼
+     */
+    public static List<VirtualFile> getModuleSourceRoots(Module[] modules) {
+        List<VirtualFile> roots = new ArrayList<>();
+        for (Module module : modules) {
+            Collections.addAll(roots, ModuleRootManager.getInstance(module).getSourceRoots(false));
+        }
+        return roots;
+    }
+
+    /**
+     * 遞歸查找選中文件和文件夾中的 DTO 類
+     * <p>
+     * 每個文件單獨持有讀鎖，只處理項目源碼中的 Java 文件，重複選中的文件只處理一次
+     * </p>
+     */
+    public static List<PsiClass> collectDtoClasses(Project project, Collection<VirtualFile> roots,
+                                                   ProgressIndicator indicator) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        Set<VirtualFile> javaFiles = new LinkedHashSet<>();
+
+        indicator.setText("正在查找 Java 文件");
+        for (VirtualFile root : roots) {
+            VfsUtilCore.iterateChildrenRecursively(root,
+                    file -> ReadAction.compute(() -> !fileIndex.isExcluded(file)),
+                    file -> {
+                        indicator.checkCanceled();
+                        if (!file.isDirectory() && "java".equalsIgnoreCase(file.getExtension())) {
+                            javaFiles.add(file);
+                        }
+                        return true;
+                    });
+        }
+
+        indicator.setText("正在查找 DTO 類");
+        PsiManager psiManager = PsiManager.getInstance(project);
+        List<PsiClass> dtoClasses = new ArrayList<>();
+        int index = 0;
+        for (VirtualFile file : javaFiles) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) index++ / javaFiles.size());
+            ReadAction.run(() -> {
+                if (!file.isValid() || !fileIndex.isInSourceContent(file)) {
+                    return;
+                }
+                PsiFile psiFile = psiManager.findFile(file);
+                if (!(psiFile instanceof PsiJavaFile)) {
+                    return;
+                }
+                for (PsiClass psiClass : ((PsiJavaFile) psiFile).getClasses()) {
+                    if (DtoDetector.getInstance(project).isDtoClass(psiClass)) {
+                        dtoClasses.add(psiClass);
+                    }
+                }
+            });
+        }
+        LOG.debug("批量生成找到 DTO 類數量: ", dtoClasses.size(), ", Java 文件數量: ", javaFiles.size());
+        return dtoClasses;
+    }
+
+    /**
+     * 從使用情境索引中查找所有作為控制器參數或返回值的 DTO 類
+     * <p>
+     * 需在智能模式下調用，每個索引鍵單獨持有讀鎖
+     * </p>
+     */
+    public static List<PsiClass> collectEndpointDtoClasses(Project project, ProgressIndicator indicator) {
+        indicator.setText("正在查找控制器使用的 DTO 類");
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        List<String> keys = new ArrayList<>(ReadAction.compute(
+                () -> index.getAllKeys(DtoEndpointUsageIndex.NAME, project)));
+
+        Set<PsiClass> dtoClasses = new LinkedHashSet<>();
+        for (int keyIndex = 0; keyIndex < keys.size(); keyIndex++) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) keyIndex / keys.size());
+            String key = keys.get(keyIndex);
+            ReadAction.run(() -> {
+                boolean usedByController = false;
+                for (DtoEndpointUsageIndex.EndpointUsage usage : index.getValues(DtoEndpointUsageIndex.NAME, key,
+                        scope)) {
+                    if (usage.controllerParameterCount > 0 || usage.controllerReturnValueCount > 0) {
+                        usedByController = true;
+                        break;
+                    }
+                }
+                if (!usedByController) {
+                    return;
+                }
+                // 未能通過導入確定包名時，索引鍵為簡單類名
+                PsiClass[] candidates = key.indexOf('.') >= 0
+                        ? JavaPsiFacade.getInstance(project).findClasses(key, scope)
+                        : PsiShortNamesCache.getInstance(project).getClassesByName(key, scope);
+                for (PsiClass candidate : candidates) {
+                    if (DtoDetector.getInstance(project).isDtoClass(candidate)) {
+                        dtoClasses.add(candidate);
+                    }
+                }
+            });
+        }
+        LOG.debug("控制器使用的 DTO 類數量: ", dtoClasses.size(), ", 索引鍵數量: ", keys.size());
+        return new ArrayList<>(dtoClasses);
+    }
+
+    /**
+     * 並行生成所有類的 TypeScript 接口
+     * <p>
+     * 類按輸入順序分成若干組，每組在一個多根類生成會話中解析，組內共同依賴的類只解析一次，
+     * 不受項目級緩存容量的限制；各組在線程池中並行處理，每個類的文件按根類單獨渲染。
+     * 某組解析失敗時改為逐個類生成，單個類失敗只記錄日誌，不影響其他類。
+     * 取消進度時未開始的任務直接放棄。所有類使用開始時的同一份設定快照
+     * </p>
+     *
+     * @return 成功生成的結果，順序與輸入一致
+     */
+    public static List<GeneratedFile> generate(Project project, List<PsiClass> dtoClasses,
+                                               ProgressIndicator indicator) {
+        return generate(project, dtoClasses, GenerationOptions.current(), indicator);
+    }
+
+    /**
+     * 使用指定的設定快照並行生成，寫入文件時應使用同一份快照
+     */
+    public static List<GeneratedFile> generate(Project project, List<PsiClass> dtoClasses, GenerationOptions options,
+                                               ProgressIndicator indicator) {
+        indicator.setText("正在生成 TypeScript 接口");
+        List<Future<List<GeneratedFile>>> futures = new ArrayList<>();
+        try {
+            for (List<PsiClass> sessionClasses : partition(dtoClasses)) {
+                indicator.checkCanceled();
+                ProgressIndicator workerIndicator = new SensitiveProgressWrapper(indicator);
+                futures.add(CommonUtils.getGenerationThreadPool().submit(() -> ProgressManager.getInstance()
+                        .runProcess(() -> generateSession(project, sessionClasses, options), workerIndicator)));
+            }
+
+            List<GeneratedFile> results = new ArrayList<>(dtoClasses.size());
+            for (int index = 0; index < futures.size(); index++) {
+                indicator.setFraction((double) index / futures.size());
+                List<GeneratedFile> sessionResults = await(futures.get(index), indicator);
+                if (sessionResults != null && !sessionResults.isEmpty()) {
+                    indicator.setText2(sessionResults.get(sessionResults.size() - 1).getSimpleName());
+                    results.addAll(sessionResults);
+                }
+            }
+            return results;
+        } finally {
+            for (Future<List<GeneratedFile>> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 按輸入順序將類分成連續的若干組，同一包中的類通常在同一組，共享的依賴更多
+     * <p>
+     * 組數不少於可並行的線程數，每組不超過 {@link #MAX_ROOTS_PER_SESSION} 個類
+     * </p>
+     */
+    public static List<List<PsiClass>> partition(List<PsiClass> dtoClasses) {
+        int size = dtoClasses.size();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        int sessionCount = Math.max((size + MAX_ROOTS_PER_SESSION - 1) / MAX_ROOTS_PER_SESSION,
+                Math.min(size, CommonUtils.getGenerationThreadCount()));
+        int sessionSize = (size + sessionCount - 1) / sessionCount;
+        List<List<PsiClass>> sessions = new ArrayList<>(sessionCount);
+        for (int start = 0; start < size; start += sessionSize) {
+            sessions.add(dtoClasses.subList(start, Math.min(start + sessionSize, size)));
+        }
+        return sessions;
+    }
+
+    /**
+     * 獲取結果中不重複的性能報告，同一會話生成的文件共用一份報告
+     */
+    public static List<GenerationReport> getReports(List<GeneratedFile> results) {
+        Set<GenerationReport> reports = new LinkedHashSet<>();
+        for (GeneratedFile result : results) {
+            reports.add(result.getReport());
+        }
+        return new ArrayList<>(reports);
+    }
+
+    /**
+     * 將生成結果寫入文件夾並刷新虛擬文件系統
+     * <p>
+     * 文件名默認為類名，簡單類名重複時改用全限定名，避免互相覆蓋。
+     * 文件在線程池中並行寫入，全部完成後只刷新一次虛擬文件系統。
+     * 通過文件夾中的清單增量寫入：內容未變的文件不改動，來源 DTO 已刪除或改名的舊文件被清理。
+     * 寫入的文件會被記住，DTO 修改後自動更新
+     * </p>
+     *
+     * @param options 生成時使用的設定快照，記錄到清單中
+     * @return 成功寫入的文件數量，包括內容未變的文件
+     */
+    public static int writeFiles(Project project, File directory, List<GeneratedFile> results,
+                                 GenerationOptions options, ProgressIndicator indicator) {
+        indicator.setText("正在寫入文件");
+        TsOutputSyncService syncService = TsOutputSyncService.getInstance(project);
+        List<String> fileNames = getFileNames(results);
+        IncrementalTsWriter writer = new IncrementalTsWriter(directory, options);
+        List<Integer> indexes = new ArrayList<>(results.size());
+        for (int index = 0; index < results.size(); index++) {
+            indexes.add(index);
+        }
+
+        try {
+            int written = writeInParallel(indexes, index -> {
+                GeneratedFile result = results.get(index);
+                File file = new File(directory, fileNames.get(index));
+                writer.write(file.getName(), List.of(result.getQualifiedName()), result.getContent());
+                syncService.remember(file.getPath(), result.getQualifiedName(), null, result.getIncludedClasses(),
+                        result.getSessionRoots(), options);
+            }, indicator);
+
+            GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+            for (File deletedFile : writer.prune(className -> ReadAction.compute(
+                    () -> JavaPsiFacade.getInstance(project).findClass(className, scope) != null))) {
+                syncService.forget(deletedFile.getPath());
+            }
+            return written;
+        } finally {
+            // 取消時也保存已寫入部分的清單
+            try {
+                writer.saveManifest();
+            } catch (IOException e) {
+                LOG.warn("保存文件夾 " + directory + " 的輸出清單失敗", e);
+            }
+            LOG.info("寫入 TypeScript 接口文件: 更新 " + writer.getWrittenCount() + " 個, 未變 "
+                    + writer.getUnchangedCount() + " 個, 刪除 " + writer.getDeletedCount() + " 個");
+            LocalFileSystem.getInstance().refreshIoFiles(Collections.singletonList(directory), true, true, null);
+        }
+    }
+
+    /**
+     * 在寫入文件專用的線程池中並行寫入，等待期間更新進度並響應取消
+     * <p>
+     * 取消時未開始的寫入直接放棄，已開始的寫入完成後才返回；單個文件失敗只記錄日誌
+     * </p>
+     *
+     * @param write 寫入單個文件，可以在任意線程中調用
+     * @return 成功寫入的文件數量
+     */
+    public static <T> int writeInParallel(List<T> items, ThrowableConsumer<T, IOException> write,
+                                          ProgressIndicator indicator) {
+        List<Future<Boolean>> futures = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                indicator.checkCanceled();
+                futures.add(CommonUtils.getFileWriteThreadPool().submit(() -> {
+                    try {
+                        write.consume(item);
+                        return true;
+                    } catch (IOException e) {
+                        LOG.warn("保存文件失敗", e);
+                        return false;
+                    }
+                }));
+            }
+
+            int written = 0;
+            for (int index = 0; index < futures.size(); index++) {
+                indicator.setFraction((double) index / futures.size());
+                if (Boolean.TRUE.equals(await(futures.get(index), indicator))) {
+                    written++;
+                }
+            }
+            return written;
+        } finally {
+            for (Future<Boolean> future : futures) {
+                future.cancel(false);
+            }
+            // 寫入使用臨時文件，等待已開始的寫入結束，避免返回後仍有文件被替換
+            for (Future<Boolean> future : futures) {
+                if (!future.isCancelled()) {
+                    try {
+                        future.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (ExecutionException e) {
+                        // 已在上面記錄
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 計算各結果的文件名，默認為類名，簡單類名重複時改用全限定名
+     *
+     * @return 帶 .ts 擴展名的文件名，順序與輸入一致
+     */
+    public static List<String> getFileNames(List<GeneratedFile> results) {
+        Map<String, Integer> nameCounts = new HashMap<>();
+        for (GeneratedFile result : results) {
+            nameCounts.merge(result.getSimpleName(), 1, Integer::sum);
+        }
+
+        List<String> fileNames = new ArrayList<>(results.size());
+        for (GeneratedFile result : results) {
+            String fileName = nameCounts.get(result.getSimpleName()) > 1
+                    ? result.getQualifiedName().replace('.', '_') : result.getSimpleName();
+            fileNames.add(fileName + ".ts");
+        }
+        return fileNames;
+    }
+
+    /**
+     * 在一個生成會話中解析一組類並按根類分別渲染
+     */
+    private static List<GeneratedFile> generateSession(Project project, List<PsiClass> sessionClasses,
+                                                       GenerationOptions options) {
+        TypescriptContentGenerator generator;
+        try {
+            generator = DtoTypescriptGeneratorService.resolveClasses(project, sessionClasses, null, options);
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.warn("批量生成會話失敗，改為逐個類生成", e);
+            List<GeneratedFile> results = new ArrayList<>(sessionClasses.size());
+            for (PsiClass psiClass : sessionClasses) {
+                ProgressManager.checkCanceled();
+                GeneratedFile result = generateOne(project, psiClass, options);
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+            return results;
+        }
+
+        return renderSession(generator);
+    }
+
+    /**
+     * 按根類分別渲染已解析的生成會話，每個根類一個文件
+     * <p>
+     * 只有一個根類時渲染完整內容，與自動更新時的渲染方式一致。
+     * 文件記錄整個會話的根類，自動更新時以同樣的根類重新生成，接口名稱保持不變
+     * </p>
+     */
+    public static List<GeneratedFile> renderSession(TypescriptContentGenerator generator) {
+        List<String> sessionRoots = generator.getRootClassNames();
+        Map<String, String> contents = new LinkedHashMap<>();
+        for (String rootClass : sessionRoots) {
+            ProgressManager.checkCanceled();
+            try {
+                contents.put(rootClass, sessionRoots.size() > 1
+                        ? generator.renderContent(rootClass) : generator.renderContent());
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                LOG.warn("渲染 " + rootClass + " 的 TypeScript 接口時發生錯誤", e);
+            }
+        }
+
+        GenerationReport report = generator.getReport();
+        List<String> roots = List.copyOf(sessionRoots);
+        List<GeneratedFile> results = new ArrayList<>(contents.size());
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            results.add(new GeneratedFile(entry.getKey(), entry.getValue(), report,
+                    generator.getClassesOfRoot(entry.getKey()), roots));
+        }
+        return results;
+    }
+
+    private static GeneratedFile generateOne(Project project, PsiClass psiClass, GenerationOptions options) {
+        try {
+            TypescriptContentGenerator generator = DtoTypescriptGeneratorService.resolveClass(project, psiClass, null,
+                    options);
+            String content = generator.renderContent();
+            GenerationReport report = generator.getReport();
+            return report.rootClass != null ? new GeneratedFile(report.rootClass, content, report,
+                    generator.getClassesOfRoot(report.rootClass)) : null;
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.warn("批量生成 TypeScript 接口時發生錯誤", e);
+            return null;
+        }
+    }
+
+    /**
+     * 等待單個任務完成，期間響應取消
+     *
+     * @return 任務結果，失敗或被新請求取代時返回 null
+     */
+    private static <T> T await(Future<T> future, ProgressIndicator indicator) {
+        while (true) {
+            indicator.checkCanceled();
+            try {
+                return future.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 繼續等待，期間檢查取消
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            } catch (ExecutionException e) {
+                indicator.checkCanceled();
+                LOG.debug("批量任務未完成: ", e.getCause());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 單個類的生成結果
+     */
+    public static final class GeneratedFile {
+
+        private final String qualifiedName;
+
+        private final String content;
+
+        private final GenerationReport report;
+
+        private final Set<String> includedClasses;
+
+        private final List<String> sessionRoots;
+
+        public GeneratedFile(String qualifiedName, String content, GenerationReport report,
+                             Set<String> includedClasses) {
+            this(qualifiedName, content, report, includedClasses, Collections.singletonList(qualifiedName));
+        }
+
+        public GeneratedFile(String qualifiedName, String content, GenerationReport report,
+                             Set<String> includedClasses, List<String> sessionRoots) {
+            this.qualifiedName = qualifiedName;
+            this.content = content;
+            this.report = report;
+            this.includedClasses = includedClasses;
+            this.sessionRoots = sessionRoots;
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        public String getSimpleName() {
+            int lastDotIndex = qualifiedName.lastIndexOf('.');
+            return lastDotIndex >= 0 ? qualifiedName.substring(lastDotIndex + 1) : qualifiedName;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public GenerationReport getReport() {
+            return report;
+        }
+
+        /**
+         * 文件中包含的所有類的全限定名
+         */
+        public Set<String> getIncludedClasses() {
+            return includedClasses;
+        }
+
+        /**
+         * 生成該文件的會話中所有根類的全限定名，按處理順序排列
+         */
+        public List<String> getSessionRoots() {
+            return sessionRoots;
+        }
+    }
+}
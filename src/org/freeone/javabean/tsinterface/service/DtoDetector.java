@@ -0,0 +1,281 @@
+package org.freeone.javabean.tsinterface.service;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.freeone.javabean.tsinterface.setting.JavaBeanToTypescriptInterfaceProjectSettings;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 項目級別的 DTO 類判斷
+ * <p>
+ * 行標記、意圖和生成服務都通過這裡判斷，結果保持一致。
+ * 請求和響應 DTO 後綴編譯為一棵反向後綴樹，類名只需從尾部遍歷一次；
+ * 每個類的判斷結果緩存到類所在的文件或後綴設定修改為止
+ * </p>
+ */
+@Service(Service.Level.PROJECT)
+public final class DtoDetector {
+
+    private static final Logger LOG = Logger.getInstance(DtoDetector.class);
+
+    private final Project project;
+
+    /**
+     * 後綴設定每次變化時遞增，使所有類的緩存結果失效
+     */
+    private final SimpleModificationTracker suffixTracker = new SimpleModificationTracker();
+
+    private volatile SuffixMatcher suffixMatcher;
+
+    public DtoDetector(Project project) {
+        this.project = project;
+    }
+
+    public static DtoDetector getInstance(Project project) {
+        return project.getService(DtoDetector.class);
+    }
+
+    /**
+     * 判斷一個類是否為 DTO 類
+     */
+    public boolean isDtoClass(PsiClass psiClass) {
+        // 先確認後綴設定沒有變化，再讀取緩存
+        getSuffixMatcher();
+        return CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(
+                computeIsDtoClass(psiClass), psiClass.getContainingFile(), suffixTracker));
+    }
+
+    /**
+     * 收集方法參數和返回值中的 DTO 類，包括泛型參數中的類，參數在前
+     */
+    public List<PsiClass> collectDtoClasses(PsiMethod method) {
+        List<PsiClass> dtoClasses = new ArrayList<>();
+        for (PsiClass psiClass : getReferencedClasses(method)) {
+            if (psiClass.isValid() && isDtoClass(psiClass)) {
+                dtoClasses.add(psiClass);
+            }
+        }
+        return dtoClasses;
+    }
+
+    /**
+     * 方法參數和返回值中是否有 DTO 類
+     */
+    public boolean hasDtoClass(PsiMethod method) {
+        for (PsiClass psiClass : getReferencedClasses(method)) {
+            if (psiClass.isValid() && isDtoClass(psiClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 獲取方法參數和返回值中引用的類
+     * <p>
+     * 解析結果依賴其他文件中的類，因此在任何 PSI 修改後失效
+     * </p>
+     */
+    private static List<PsiClass> getReferencedClasses(PsiMethod method) {
+        return CachedValuesManager.getCachedValue(method, () -> {
+            List<PsiClass> classes = new ArrayList<>();
+
+            // 檢查參數類型
+            for (PsiParameter parameter : method.getParameterList().getParameters()) {
+                addClassesFromType(parameter.getType(), classes);
+            }
+
+            // 檢查返回類型
+            PsiType returnType = method.getReturnType();
+            if (returnType != null) {
+                addClassesFromType(returnType, classes);
+            }
+
+            return CachedValueProvider.Result.create(classes, PsiModificationTracker.MODIFICATION_COUNT);
+        });
+    }
+
+    /**
+     * 從類型中提取類
+     */
+    private static void addClassesFromType(PsiType type, List<PsiClass> classes) {
+        // 處理泛型類型
+        if (type instanceof PsiClassType) {
+            PsiClassType classType = (PsiClassType) type;
+            PsiClass psiClass = classType.resolve();
+            if (psiClass != null) {
+                classes.add(psiClass);
+            }
+
+            // 處理泛型參數
+            for (PsiType parameter : classType.getParameters()) {
+                addClassesFromType(parameter, classes);
+            }
+        }
+    }
+
+    private boolean computeIsDtoClass(PsiClass psiClass) {
+        // 確保不是接口、枚舉或註解
+        if (psiClass.isInterface() || psiClass.isEnum() || psiClass.isAnnotationType()) {
+            return false;
+        }
+
+        // 獲取類名
+        String className = psiClass.getName();
+        if (className == null) {
+            return false;
+        }
+
+        // 大小寫不敏感的檢查
+        String lowerClassName = className.toLowerCase(Locale.ROOT);
+
+        // 檢查是否包含Qrystatement、Query或Qry
+        if (lowerClassName.contains("qry") || lowerClassName.contains("query")) {
+            LOG.debug("匹配到查詢關鍵字: ", className);
+            return true;
+        }
+
+        // 檢查類名是否以配置的請求或響應DTO後綴結尾
+        if (getSuffixMatcher().matches(className)) {
+            LOG.debug("匹配到DTO後綴: ", className);
+            return true;
+        }
+
+        // 檢查是否包含常見的DTO相關詞
+        if (lowerClassName.contains("dto") ||
+                lowerClassName.contains("model") ||
+                lowerClassName.contains("bean") ||
+                lowerClassName.contains("vo") ||
+                lowerClassName.contains("entity") ||
+                lowerClassName.contains("request") ||
+                lowerClassName.contains("response") ||
+                lowerClassName.contains("result")) {
+            LOG.debug("匹配到常見DTO關鍵字: ", className);
+            return true;
+        }
+
+        // 如果上述檢查都未通過，則檢查類結構
+        boolean isDto = checkClassStructure(psiClass);
+        LOG.debug("基於類結構判斷 ", className, " 是否為DTO: ", isDto);
+        return isDto;
+    }
+
+    /**
+     * 根據類結構判斷是否為DTO類：公共字段超過2個或者 getter/setter 方法超過3個
+     */
+    private static boolean checkClassStructure(PsiClass psiClass) {
+        int publicFieldCount = 0;
+        for (PsiField field : psiClass.getFields()) {
+            if (field.hasModifierProperty(PsiModifier.PUBLIC)) {
+                publicFieldCount++;
+            }
+        }
+        if (publicFieldCount > 2) {
+            return true;
+        }
+
+        int getterSetterCount = 0;
+        for (PsiMethod method : psiClass.getMethods()) {
+            String methodName = method.getName();
+            if (methodName.length() <= 3 || !Character.isUpperCase(methodName.charAt(3))) {
+                continue;
+            }
+            if ((methodName.startsWith("get") && method.getParameterList().isEmpty())
+                    || (methodName.startsWith("set") && method.getParameterList().getParametersCount() == 1)) {
+                getterSetterCount++;
+            }
+        }
+        return getterSetterCount > 3;
+    }
+
+    /**
+     * 獲取當前後綴設定對應的匹配器，設定變化時重新編譯並使緩存失效
+     */
+    private SuffixMatcher getSuffixMatcher() {
+        JavaBeanToTypescriptInterfaceProjectSettings settings = project
+                .getService(JavaBeanToTypescriptInterfaceProjectSettings.class);
+        List<String> requestSuffixes = settings.getEffectiveRequestDtoSuffixes();
+        List<String> responseSuffixes = settings.getEffectiveResponseDtoSuffixes();
+
+        SuffixMatcher matcher = suffixMatcher;
+        if (matcher != null && matcher.isCompiledFrom(requestSuffixes, responseSuffixes)) {
+            return matcher;
+        }
+        synchronized (this) {
+            matcher = suffixMatcher;
+            if (matcher == null || !matcher.isCompiledFrom(requestSuffixes, responseSuffixes)) {
+                matcher = new SuffixMatcher(requestSuffixes, responseSuffixes);
+                suffixMatcher = matcher;
+                suffixTracker.incModificationCount();
+                LOG.debug("已編譯DTO後綴 - 請求: ", requestSuffixes, ", 響應: ", responseSuffixes);
+            }
+            return matcher;
+        }
+    }
+
+    /**
+     * 反向後綴樹，從類名最後一個字符開始向前匹配，經過任一後綴的終點即為匹配
+     */
+    private static final class SuffixMatcher {
+
+        private final List<String> requestSuffixes;
+
+        private final List<String> responseSuffixes;
+
+        private final Node root = new Node();
+
+        SuffixMatcher(List<String> requestSuffixes, List<String> responseSuffixes) {
+            this.requestSuffixes = new ArrayList<>(requestSuffixes);
+            this.responseSuffixes = new ArrayList<>(responseSuffixes);
+            this.requestSuffixes.forEach(this::add);
+            this.responseSuffixes.forEach(this::add);
+        }
+
+        private void add(String suffix) {
+            if (suffix == null || suffix.isEmpty()) {
+                return;
+            }
+            Node node = root;
+            for (int index = suffix.length() - 1; index >= 0; index--) {
+                node = node.children.computeIfAbsent(suffix.charAt(index), key -> new Node());
+            }
+            node.terminal = true;
+        }
+
+        boolean isCompiledFrom(List<String> requestSuffixes, List<String> responseSuffixes) {
+            return this.requestSuffixes.equals(requestSuffixes) && this.responseSuffixes.equals(responseSuffixes);
+        }
+
+        boolean matches(String className) {
+            Node node = root;
+            for (int index = className.length() - 1; index >= 0; index--) {
+                node = node.children.get(className.charAt(index));
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static final class Node {
+
+            private final Map<Character, Node> children = new HashMap<>(4);
+
+            private boolean terminal;
+        }
+    }
+}
@@ -5,70 +5,355 @@ import com.intellij.notification.NotificationGroup;
 import com.intellij.notification.NotificationGroupManager;
 import com.intellij.notification.NotificationType;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.NonBlockingReadAction;
 import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileChooser.FileChooser;
 import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
-import org.freeone.javabean.tsinterface.setting.JavaBeanToTypescriptInterfaceProjectSettings;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
 import org.freeone.javabean.tsinterface.swing.TypescriptInterfaceShowerWrapper;
 import org.freeone.javabean.tsinterface.util.CommonUtils;
+import org.freeone.javabean.tsinterface.util.GenerationReport;
+import org.freeone.javabean.tsinterface.util.IncrementalTsWriter;
+import org.freeone.javabean.tsinterface.util.TypescriptContentGenerator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.concurrency.CancellablePromise;
 
 import java.awt.*;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
 import java.awt.datatransfer.Transferable;
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 /**
  * 多 DTO 類的 TypeScript 接口生成服務
  */
 public class DtoTypescriptGeneratorService {
 
+    private static final Logger LOG = Logger.getInstance(DtoTypescriptGeneratorService.class);
+
     // 使用 NotificationGroupManager 獲取通知組
     private static final NotificationGroup notificationGroup = NotificationGroupManager.getInstance()
             .getNotificationGroup("JavaDtoToTypescriptInterface");
 
+    /**
+     * 等待非阻塞解析時檢查取消的間隔
+     */
+    private static final int RESOLVE_POLL_INTERVAL_MS = 50;
+
     /**
      * 保存生成的 TypeScript 接口到文件
      */
     public static void saveToFiles(Project project, Map<String, String> contentMap) {
+        saveToFiles(project, contentMap, Collections.emptyMap(), null);
+    }
+
+    /**
+     * 保存生成的 TypeScript 接口到文件，每個文件寫入成功後通知回調
+     * <p>
+     * 選擇文件夾後在可取消的後台任務中並行寫入，EDT 不做任何文件操作。
+     * 通過輸出文件夾中的清單增量寫入，內容未變的文件保持不動；全部寫完後只刷新一次虛擬文件系統
+     * </p>
+     *
+     * @param sourceClassMap    文件名到來源 DTO 類全限定名的映射，記錄到清單中
+     * @param savedFileConsumer 接收文件名和寫入的文件，在後台線程中調用，可以為 null
+     */
+    public static void saveToFiles(Project project, Map<String, String> contentMap,
+                                   Map<String, String> sourceClassMap, BiConsumer<String, File> savedFileConsumer) {
         FileChooserDescriptor chooserDescriptor = CommonUtils.createFileChooserDescriptor("選擇一個文件夾",
                 "TypeScript 介面文件（.ts）將保存在此文件夾中");
         VirtualFile savePathFile = FileChooser.chooseFile(chooserDescriptor, null, null);
 
         if (savePathFile != null && savePathFile.isDirectory()) {
-            String savePath = savePathFile.getPath();
-            StringBuilder successFiles = new StringBuilder();
+            File directory = new File(savePathFile.getPath());
+            GenerationOptions options = GenerationOptions.current();
+            List<String> fileNames = new ArrayList<>(contentMap.keySet());
+
+            new Task.Backgroundable(project, "保存 TypeScript 接口", true) {
+
+                private final Set<String> savedFileNames = ConcurrentHashMap.newKeySet();
+
+                private IncrementalTsWriter writer;
+
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    indicator.setIndeterminate(false);
+                    indicator.setText("正在寫入文件");
+                    writer = new IncrementalTsWriter(directory, options);
+                    try {
+                        DtoBatchGenerationService.writeInParallel(fileNames, fileName -> {
+                            String sourceClass = sourceClassMap.get(fileName);
+                            // 確保檔案名有 .ts 擴展名（不含 .d）
+                            File file = new File(directory, ensureTsExtension(fileName));
+                            writer.write(file.getName(), sourceClass != null ? List.of(sourceClass) : List.of(),
+                                    contentMap.get(fileName));
+                            savedFileNames.add(fileName);
+                            if (savedFileConsumer != null) {
+                                savedFileConsumer.accept(fileName, file);
+                            }
+                        }, indicator);
+                    } finally {
+                        // 取消時也保存已寫入部分的清單
+                        saveManifest(writer, directory);
+                        VfsUtil.markDirtyAndRefresh(true, false, true, savePathFile);
+                    }
+                }
 
-            for (Map.Entry<String, String> entry : contentMap.entrySet()) {
-                String fileName = entry.getKey();
-                String content = entry.getValue();
-                // 確保檔案名有 .ts 擴展名（不含 .d）
-                String interfaceFileSavePath = savePath + "/" + ensureTsExtension(fileName);
-
-                try (BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(
-                        new FileOutputStream(interfaceFileSavePath, false), StandardCharsets.UTF_8))) {
-                    bufferedWriter.write(content);
-                    successFiles.append(fileName).append(".ts, ");
-                } catch (IOException e) {
-                    e.printStackTrace();
+                @Override
+                public void onFinished() {
+                    // 按原順序報告已寫入的文件，取消時也報告
+                    StringBuilder successFiles = new StringBuilder();
+                    for (String fileName : fileNames) {
+                        if (savedFileNames.contains(fileName)) {
+                            successFiles.append(fileName).append(".ts, ");
+                        }
+                    }
+                    if (successFiles.length() > 0) {
+                        successFiles.delete(successFiles.length() - 2, successFiles.length());
+                        Notification notification = notificationGroup.createNotification(
+                                "已成功保存以下文件: " + successFiles + formatUnchanged(writer),
+                                NotificationType.INFORMATION);
+                        notification.setImportant(true).notify(project);
+                    }
                 }
-            }
+            }.queue();
+        }
+    }
 
-            if (successFiles.length() > 0) {
-                successFiles.delete(successFiles.length() - 2, successFiles.length());
-                Notification notification = notificationGroup.createNotification(
-                        "已成功保存以下文件: " + successFiles, NotificationType.INFORMATION);
-                notification.setImportant(true).notify(project);
+    /**
+     * 生成 DTO 類的 TypeScript 接口並寫入所選文件夾
+     * <p>
+     * 逐個類生成並寫入，內存中只保留當前文件的內容，適合大量類的導出。
+     * 選擇文件夾後在可取消的後台任務中逐個類生成，所有類共用一份設定快照和輸出清單，
+     * 結束後只刷新一次虛擬文件系統
+     * </p>
+     */
+    public static void saveClassesToFiles(Project project, List<PsiClass> dtoClasses, String transactionCode) {
+        FileChooserDescriptor chooserDescriptor = CommonUtils.createFileChooserDescriptor("選擇一個文件夾",
+                "TypeScript 介面文件（.ts）將保存在此文件夾中");
+        VirtualFile savePathFile = FileChooser.chooseFile(chooserDescriptor, null, null);
+
+        if (savePathFile != null && savePathFile.isDirectory()) {
+            File directory = new File(savePathFile.getPath());
+            GenerationOptions options = GenerationOptions.current();
+
+            new Task.Backgroundable(project, "保存 TypeScript 接口", true) {
+
+                private final StringBuilder successFiles = new StringBuilder();
+
+                private final List<GenerationReport> reports = new ArrayList<>();
+
+                private IncrementalTsWriter writer;
+
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    indicator.setIndeterminate(false);
+                    writer = new IncrementalTsWriter(directory, options);
+                    try {
+                        for (int index = 0; index < dtoClasses.size(); index++) {
+                            indicator.checkCanceled();
+                            indicator.setFraction((double) index / dtoClasses.size());
+                            PsiClass psiClass = dtoClasses.get(index);
+                            String fileName = ReadAction.compute(psiClass::getName);
+                            indicator.setText2(fileName);
+                            File file = new File(directory, ensureTsExtension(fileName));
+
+                            try {
+                                reports.add(writeTypescriptFile(project, psiClass, transactionCode, file, writer,
+                                        options));
+                                successFiles.append(fileName).append(".ts, ");
+                            } catch (IOException e) {
+                                LOG.warn("保存文件 " + file + " 失敗", e);
+                            }
+                        }
+                    } finally {
+                        // 取消時也保存已寫入部分的清單
+                        saveManifest(writer, directory);
+                        VfsUtil.markDirtyAndRefresh(true, false, true, savePathFile);
+                    }
+                }
+
+                @Override
+                public void onFinished() {
+                    // 取消時也報告已寫入的文件
+                    if (successFiles.length() > 0) {
+                        successFiles.delete(successFiles.length() - 2, successFiles.length());
+                        Notification notification = notificationGroup.createNotification(
+                                "已成功保存以下文件: " + successFiles + formatUnchanged(writer),
+                                NotificationType.INFORMATION);
+                        notification.setImportant(true).notify(project);
+                    }
+                    GenerationHistoryService.getInstance(project).record(reports);
+                }
+            }.queue();
+        }
+    }
+
+    /**
+     * 生成單個類的 TypeScript 接口並寫入文件
+     * <p>
+     * 解析在可重啟的非阻塞讀操作中完成，渲染和寫文件時不持有讀鎖。
+     * 內容與文件夾清單中記錄的相同時不改動文件。
+     * 寫入後記住該文件，類或其依賴修改時自動更新
+     * </p>
+     *
+     * @return 本次生成的性能報告
+     */
+    public static GenerationReport writeTypescriptFile(Project project, PsiClass psiClass, String transactionCode,
+                                                       File file) throws IOException {
+        GenerationOptions options = GenerationOptions.current();
+        IncrementalTsWriter writer = new IncrementalTsWriter(file.getParentFile(), options);
+        GenerationReport report = writeTypescriptFile(project, psiClass, transactionCode, file, writer, options);
+        writer.saveManifest();
+        return report;
+    }
+
+    /**
+     * 使用共享的增量寫入器生成單個類的 TypeScript 接口，清單由調用方保存
+     *
+     * @param writer 輸出文件所在文件夾的寫入器
+     */
+    public static GenerationReport writeTypescriptFile(Project project, PsiClass psiClass, String transactionCode,
+                                                       File file, IncrementalTsWriter writer,
+                                                       GenerationOptions options) throws IOException {
+        TypescriptContentGenerator generator = resolveClass(project, psiClass, transactionCode, options);
+        writer.write(file.getName(), generator.getRootClassNames(), generator::renderContent);
+        for (String rootClassName : generator.getRootClassNames()) {
+            TsOutputSyncService.getInstance(project).remember(file.getPath(), rootClassName, transactionCode,
+                    generator.getClassesOfRoot(rootClassName), options);
+        }
+        return generator.getReport();
+    }
+
+    /**
+     * 保存輸出清單，失敗只影響下次能否跳過未變的文件
+     */
+    private static void saveManifest(IncrementalTsWriter writer, File directory) {
+        try {
+            writer.saveManifest();
+        } catch (IOException e) {
+            LOG.warn("保存文件夾 " + directory + " 的輸出清單失敗", e);
+        }
+    }
+
+    private static String formatUnchanged(IncrementalTsWriter writer) {
+        return writer.getUnchangedCount() > 0 ? "（其中 " + writer.getUnchangedCount() + " 個內容未變）" : "";
+    }
+
+    /**
+     * 在非阻塞讀操作中解析類及其依賴並排序聲明，返回可直接渲染的生成器
+     * <p>
+     * 寫操作到來時讀操作讓出並在寫完成後從頭重新解析，因此編輯不會排在長時間的解析之後。
+     * 項目關閉時自動失效。需在後台線程調用，等待期間響應當前進度的取消。
+     * </p>
+     */
+    public static TypescriptContentGenerator resolveClass(Project project, PsiClass psiClass,
+                                                          String transactionCode) {
+        return resolveClass(project, psiClass, transactionCode, GenerationOptions.current());
+    }
+
+    /**
+     * 使用指定的設定快照解析類，批量生成時所有類共用同一份快照
+     */
+    public static TypescriptContentGenerator resolveClass(Project project, PsiClass psiClass,
+                                                          String transactionCode, GenerationOptions options) {
+        return resolveClasses(project, Collections.singletonList(psiClass), transactionCode, options);
+    }
+
+    /**
+     * 在同一個生成會話中解析多個根類，共同依賴的類只解析一次
+     * <p>
+     * 返回的生成器既可以合併渲染所有根類，也可以按根類單獨渲染，其餘行為與 resolveClass 相同
+     * </p>
+     */
+    public static TypescriptContentGenerator resolveClasses(Project project, List<PsiClass> psiClasses,
+                                                            String transactionCode) {
+        return resolveClasses(project, psiClasses, transactionCode, GenerationOptions.current());
+    }
+
+    /**
+     * 使用指定的設定快照解析多個根類；讀操作重啟時仍使用同一份快照
+     */
+    public static TypescriptContentGenerator resolveClasses(Project project, List<PsiClass> psiClasses,
+                                                            String transactionCode, GenerationOptions options) {
+        return resolveClasses(project, psiClasses, transactionCode, options, false);
+    }
+
+    /**
+     * 解析編輯器中觸發的生成請求
+     * <p>
+     * 根類、交易代碼和設定都相同的新請求會取代尚未完成的舊請求，連續觸發時只完成最後一次。
+     * 批量生成、導出和自動更新不使用此方法，避免互相取代而遺漏 DTO
+     * </p>
+     */
+    public static TypescriptContentGenerator resolveClassesForEditor(Project project, List<PsiClass> psiClasses,
+                                                                     String transactionCode,
+                                                                     GenerationOptions options) {
+        return resolveClasses(project, psiClasses, transactionCode, options, true);
+    }
+
+    private static TypescriptContentGenerator resolveClasses(Project project, List<PsiClass> psiClasses,
+                                                             String transactionCode, GenerationOptions options,
+                                                             boolean coalesce) {
+        List<PsiClass> roots = List.copyOf(psiClasses);
+        NonBlockingReadAction<TypescriptContentGenerator> readAction = ReadAction
+                .nonBlocking(() -> {
+                    TypescriptContentGenerator generator = new TypescriptContentGenerator(project, transactionCode,
+                            options);
+                    generator.processPsiClasses(roots);
+                    generator.prepareContent();
+                    return generator;
+                })
+                .withDocumentsCommitted(project)
+                .expireWith(project);
+        if (coalesce) {
+            readAction = readAction.coalesceBy(TypescriptContentGenerator.class,
+                    Arrays.asList(roots, transactionCode, options.getFingerprint()));
+        }
+        ProgressIndicator indicator = ProgressManager.getGlobalProgressIndicator();
+        if (indicator != null) {
+            readAction = readAction.wrapProgress(indicator);
+        }
+        CancellablePromise<TypescriptContentGenerator> promise = readAction
+                .submit(AppExecutorUtil.getAppExecutorService());
+
+        while (true) {
+            ProgressManager.checkCanceled();
+            try {
+                return promise.blockingGet(RESOLVE_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 繼續等待，期間檢查取消
+            } catch (CancellationException e) {
+                // 被編輯器中相同的新請求取代或項目已關閉
+                throw new ProcessCanceledException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("解析類失敗", cause);
             }
         }
     }
@@ -129,25 +414,28 @@ public class DtoTypescriptGeneratorService {
             return;
         }
 
+        // 合併內容
+        StringBuilder combinedContent = new StringBuilder();
+        for (Map.Entry<String, String> entry : contentMap.entrySet()) {
+            combinedContent.append(entry.getValue()).append("\n\n");
+        }
+        showInTextEditor(project, combinedContent.toString(), transactionCode);
+    }
+
+    /**
+     * 在文本編輯器中顯示已合併的內容
+     */
+    public static void showInTextEditor(Project project, String content, String transactionCode) {
+        if (content.isEmpty()) {
+            return;
+        }
+
         // 使用 ApplicationManager 確保在 EDT 線程中執行 UI 操作
         ApplicationManager.getApplication().invokeLater(() -> {
             try {
-                // 合併內容
-                StringBuilder combinedContent = new StringBuilder();
-                StringBuilder classNamesBuilder = new StringBuilder();
-
-                for (Map.Entry<String, String> entry : contentMap.entrySet()) {
-                    combinedContent.append(entry.getValue()).append("\n\n");
-
-                    if (classNamesBuilder.length() > 0) {
-                        classNamesBuilder.append(", ");
-                    }
-                    classNamesBuilder.append(entry.getKey());
-                }
-
                 // 創建顯示包裝器
                 TypescriptInterfaceShowerWrapper wrapper = new TypescriptInterfaceShowerWrapper();
-                wrapper.setContent(combinedContent.toString());
+                wrapper.setContent(content);
 
                 // 設置類名，如果使用電文代號則使用電文代號，否則使用默認名稱
                 wrapper.setClassName(CommonUtils.getSettings().isUseTransactionCodePrefix() ? transactionCode : "typescript-interface");
@@ -155,8 +443,7 @@ public class DtoTypescriptGeneratorService {
                 // 顯示對話框
                 wrapper.show();
             } catch (Exception e) {
-                System.err.println("在編輯器中顯示內容時發生錯誤: " + e.getMessage());
-                e.printStackTrace();
+                LOG.warn("在編輯器中顯示內容時發生錯誤", e);
 
                 // 使用通知而不是彈窗報錯
                 Notification notification = notificationGroup.createNotification(
@@ -166,115 +453,4 @@ public class DtoTypescriptGeneratorService {
             }
         }, com.intellij.openapi.application.ModalityState.defaultModalityState());
     }
-
-    // 使用項目級設定
-    private static List<PsiClass> collectDtoClasses(Project project, PsiMethod method) {
-        return ReadAction.compute(() -> {
-            List<PsiClass> dtoClasses = new ArrayList<>();
-
-            // 檢查返回類型
-            PsiType returnType = method.getReturnType();
-            if (returnType != null) {
-                addDtoClassesFromType(project, returnType, dtoClasses);
-            }
-
-            // 檢查參數類型
-            PsiParameter[] parameters = method.getParameterList().getParameters();
-            for (PsiParameter parameter : parameters) {
-                PsiType parameterType = parameter.getType();
-                addDtoClassesFromType(project, parameterType, dtoClasses);
-            }
-
-            return dtoClasses;
-        });
-    }
-
-    /**
-     * 從類型中提取 DTO 類
-     */
-    private static void addDtoClassesFromType(Project project, PsiType type, List<PsiClass> dtoClasses) {
-        // 處理泛型類型
-        if (type instanceof PsiClassType) {
-            PsiClassType classType = (PsiClassType) type;
-            PsiClass psiClass = ReadAction.compute(() -> classType.resolve());
-
-            if (psiClass != null && isDtoClass(project, psiClass)) {
-                dtoClasses.add(psiClass);
-            }
-
-            // 處理泛型參數
-            PsiType[] parameters = classType.getParameters();
-            for (PsiType parameter : parameters) {
-                addDtoClassesFromType(project, parameter, dtoClasses);
-            }
-        }
-    }
-
-    /**
-     * 檢查是否為DTO類
-     */
-    private static boolean isDtoClass(Project project, PsiClass psiClass) {
-        // 確保不是接口、枚舉或註解
-        if (psiClass.isInterface() || psiClass.isEnum() || psiClass.isAnnotationType()) {
-            return false;
-        }
-
-        // 獲取類名
-        String className = psiClass.getName();
-        if (className == null) {
-            return false;
-        }
-
-        System.out.println("Service檢查類是否為DTO: " + className);
-
-        // 大小寫不敏感的檢查
-        String lowerClassName = className.toLowerCase();
-
-        // 檢查是否包含Qrystatement、Query或Qry
-        if (lowerClassName.contains("qrystatement") ||
-                lowerClassName.contains("qry") ||
-                lowerClassName.contains("query")) {
-            System.out.println("  Service匹配到查詢關鍵字: " + className);
-            return true;
-        }
-
-        // 獲取項目設置
-        JavaBeanToTypescriptInterfaceProjectSettings settings = CommonUtils.getProjectSettings(project);
-
-        // 輸出調試信息
-        System.out.println("  Service當前項目設置中請求DTO後綴: " + settings.getEffectiveRequestDtoSuffixes());
-        System.out.println("  Service當前項目設置中響應DTO後綴: " + settings.getEffectiveResponseDtoSuffixes());
-
-        // 檢查類名是否包含配置的請求DTO後綴
-        for (String suffix : settings.getEffectiveRequestDtoSuffixes()) {
-            if (className.endsWith(suffix)) {
-                System.out.println("  Service匹配到請求DTO後綴 " + suffix + ": " + className);
-                return true;
-            }
-        }
-
-        // 檢查類名是否包含配置的響應DTO後綴
-        for (String suffix : settings.getEffectiveResponseDtoSuffixes()) {
-            if (className.endsWith(suffix)) {
-                System.out.println("  Service匹配到響應DTO後綴 " + suffix + ": " + className);
-                return true;
-            }
-        }
-
-        // 檢查是否包含常見的DTO相關詞
-        if (lowerClassName.contains("dto") ||
-                lowerClassName.contains("model") ||
-                lowerClassName.contains("bean") ||
-                lowerClassName.contains("vo") ||
-                lowerClassName.contains("entity") ||
-                lowerClassName.contains("request") ||
-                lowerClassName.contains("response") ||
-                lowerClassName.contains("result")) {
-            System.out.println("  Service匹配到常見DTO關鍵字: " + className);
-            return true;
-        }
-
-        // 如果上述檢查都未通過，則檢查類結構
-        return false; // 在服務中，不使用結構檢查以提高性能
-    }
-}
\ No newline at end of file
+}
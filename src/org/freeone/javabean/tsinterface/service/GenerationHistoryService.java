@@ -0,0 +1,157 @@
+package org.freeone.javabean.tsinterface.service;
+
+import com.intellij.notification.NotificationAction;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import org.freeone.javabean.tsinterface.util.CommonUtils;
+import org.freeone.javabean.tsinterface.util.GenerationReport;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 項目級別的生成歷史
+ * <p>
+ * 保存最近若干次生成的性能報告，存放在工作區文件中，便於對比同一批 DTO 的耗時變化。
+ * 開啟「生成後顯示性能報告」時，每次記錄後發出通知。
+ * </p>
+ */
+@State(name = "JavaDtoToTypescriptGenerationHistory", storages = {
+        @Storage(StoragePathMacros.WORKSPACE_FILE)
+})
+@Service(Service.Level.PROJECT)
+public final class GenerationHistoryService
+        implements PersistentStateComponent<GenerationHistoryService.HistoryState> {
+
+    /**
+     * 最多保留的報告數量
+     */
+    private static final int MAX_HISTORY = 100;
+
+    /**
+     * 通知中最多列出的報告數量
+     */
+    private static final int MAX_NOTIFIED_REPORTS = 10;
+
+    private final Project project;
+
+    private HistoryState state = new HistoryState();
+
+    public GenerationHistoryService(Project project) {
+        this.project = project;
+    }
+
+    public static GenerationHistoryService getInstance(Project project) {
+        return project.getService(GenerationHistoryService.class);
+    }
+
+    @NotNull
+    @Override
+    public synchronized HistoryState getState() {
+        return state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull HistoryState state) {
+        this.state = state;
+    }
+
+    /**
+     * 記錄一次操作中各類的生成報告，按設定發出通知
+     */
+    public void record(List<GenerationReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        List<String> lines = new ArrayList<>();
+        synchronized (this) {
+            for (GenerationReport report : reports) {
+                GenerationReport previous = findPrevious(report.rootClass);
+                if (lines.size() < MAX_NOTIFIED_REPORTS) {
+                    lines.add(report.toDetail() + describeChange(report, previous));
+                }
+                state.reports.add(report);
+            }
+            int overflow = state.reports.size() - MAX_HISTORY;
+            if (overflow > 0) {
+                state.reports.subList(0, overflow).clear();
+            }
+        }
+
+        if (!CommonUtils.getSettings().isShowGenerationReport()) {
+            return;
+        }
+        if (reports.size() > MAX_NOTIFIED_REPORTS) {
+            lines.add("... 其餘 " + (reports.size() - MAX_NOTIFIED_REPORTS) + " 個類見生成歷史");
+        }
+        String content = StringUtil.escapeXmlEntities(String.join("\n\n", lines)).replace("\n", "<br/>");
+        NotificationGroupManager.getInstance()
+                .getNotificationGroup("JavaDtoToTypescriptInterface")
+                .createNotification("TypeScript 接口生成報告", content, NotificationType.INFORMATION)
+                .addAction(NotificationAction.createSimple("查看生成歷史", this::showHistory))
+                .setImportant(false)
+                .notify(project);
+    }
+
+    /**
+     * 獲取歷史報告，按時間先後排列
+     */
+    public synchronized List<GenerationReport> getHistory() {
+        return new ArrayList<>(state.reports);
+    }
+
+    public synchronized void clear() {
+        state.reports.clear();
+    }
+
+    /**
+     * 以對話框列出歷史報告，最近的在前
+     */
+    public void showHistory() {
+        List<GenerationReport> history = getHistory();
+        StringBuilder builder = new StringBuilder();
+        for (int index = history.size() - 1; index >= 0; index--) {
+            builder.append(history.get(index).toSummary()).append('\n');
+        }
+        Messages.showInfoMessage(project, builder.length() > 0 ? builder.toString() : "暫無生成記錄",
+                "TypeScript 接口生成歷史");
+    }
+
+    /**
+     * 查找同一個類最近一次的報告
+     */
+    private GenerationReport findPrevious(String rootClass) {
+        for (int index = state.reports.size() - 1; index >= 0; index--) {
+            GenerationReport report = state.reports.get(index);
+            if (rootClass != null && rootClass.equals(report.rootClass)) {
+                return report;
+            }
+        }
+        return null;
+    }
+
+    private static String describeChange(GenerationReport report, GenerationReport previous) {
+        if (previous == null || previous.getTotalMicros() == 0) {
+            return "";
+        }
+        long percent = (report.getTotalMicros() - previous.getTotalMicros()) * 100 / previous.getTotalMicros();
+        return "\n  與上次相比: " + (percent >= 0 ? "+" : "") + percent + "%";
+    }
+
+    /**
+     * 持久化的歷史狀態
+     */
+    public static class HistoryState {
+        public List<GenerationReport> reports = new ArrayList<>();
+    }
+}
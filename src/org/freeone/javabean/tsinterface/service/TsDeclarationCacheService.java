@@ -0,0 +1,143 @@
+package org.freeone.javabean.tsinterface.service;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.freeone.javabean.tsinterface.model.TsDeclaration;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 項目級別的TypeScript聲明緩存
+ * <p>
+ * 保存每個類解析後的聲明，跨多次生成重用。任何 PSI 修改都會使整個緩存失效，
+ * 緩存鍵包含影響輸出的設定，容量超過上限時淘汰最久未使用的條目。
+ * </p>
+ */
+@Service(Service.Level.PROJECT)
+public final class TsDeclarationCacheService {
+
+    /**
+     * 最大緩存條目數
+     */
+    private static final int MAX_ENTRIES = 2000;
+
+    private final CachedValue<Map<String, Entry>> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    public TsDeclarationCacheService(Project project) {
+        this.entries = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(createLruMap(), PsiModificationTracker.MODIFICATION_COUNT),
+                false);
+    }
+
+    public static TsDeclarationCacheService getInstance(Project project) {
+        return project.getService(TsDeclarationCacheService.class);
+    }
+
+    /**
+     * 查找緩存的聲明
+     *
+     * @return 緩存條目，未命中或已失效時返回 null
+     */
+    public Entry get(String optionsKey, String qualifiedName) {
+        Map<String, Entry> map = entries.getValue();
+        Entry entry;
+        synchronized (map) {
+            entry = map.get(optionsKey + '|' + qualifiedName);
+        }
+        if (entry != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * 緩存類的聲明
+     */
+    public void put(String optionsKey, String qualifiedName, Entry entry) {
+        Map<String, Entry> map = entries.getValue();
+        synchronized (map) {
+            map.put(optionsKey + '|' + qualifiedName, entry);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        Map<String, Entry> map = entries.getValue();
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    /**
+     * 清空緩存及計數器
+     */
+    public void clear() {
+        Map<String, Entry> map = entries.getValue();
+        synchronized (map) {
+            map.clear();
+        }
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    private static Map<String, Entry> createLruMap() {
+        return new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    /**
+     * 緩存條目
+     * <p>
+     * 除聲明本身外，還記錄生成時依次進入的依賴類和收集到的引用關係，命中時據此重放遍歷
+     * </p>
+     */
+    public static final class Entry {
+
+        private final TsDeclaration declaration;
+
+        private final List<PsiClass> dependencies;
+
+        private final Map<String, Set<String>> references;
+
+        public Entry(TsDeclaration declaration, List<PsiClass> dependencies, Map<String, Set<String>> references) {
+            this.declaration = declaration;
+            this.dependencies = List.copyOf(dependencies);
+            this.references = Collections.unmodifiableMap(new LinkedHashMap<>(references));
+        }
+
+        public TsDeclaration getDeclaration() {
+            return declaration;
+        }
+
+        public List<PsiClass> getDependencies() {
+            return dependencies;
+        }
+
+        public Map<String, Set<String>> getReferences() {
+            return references;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package org.freeone.javabean.tsinterface.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Alarm;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
+import org.freeone.javabean.tsinterface.util.CommonUtils;
+import org.freeone.javabean.tsinterface.util.IncrementalTsWriter;
+import org.freeone.javabean.tsinterface.util.TypescriptContentGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 已保存 TypeScript 文件的自動更新
+ * <p>
+ * 記住每個保存過的根類及其輸出路徑、生成時該文件包含的所有類、同一會話中的所有根類以及生成時的設定指紋。
+ * Java 文件修改後合併一段時間內的改動，只在後台重新生成包含了被修改類的文件，不會重新導出全部接口；
+ * 重新生成時使用保存時的根類集合，嵌套類和重名類的接口名稱不會因此改變。
+ * 保存後設定已改變的文件不自動更新，避免以不同的設定覆蓋，並提示用戶重新生成
+ * </p>
+ */
+@State(name = "JavaDtoToTypescriptOutputSync", storages = {
+        @Storage(StoragePathMacros.WORKSPACE_FILE)
+})
+@Service(Service.Level.PROJECT)
+public final class TsOutputSyncService implements PersistentStateComponent<TsOutputSyncService.SyncState>, Disposable {
+
+    private static final Logger LOG = Logger.getInstance(TsOutputSyncService.class);
+
+    /**
+     * 最後一次修改後等待的時間，期間的修改合併為一次更新
+     */
+    private static final int DEBOUNCE_DELAY_MS = 1500;
+
+    private final Project project;
+
+    private final Alarm alarm;
+
+    private SyncState state = new SyncState();
+
+    /**
+     * 類到包含它的輸出文件的反向索引，記錄變化後置空，使用時重建
+     */
+    private Map<String, Set<String>> outputsByClass;
+
+    /**
+     * 等待處理的已修改 Java 文件
+     */
+    private final Set<VirtualFile> pendingFiles = new LinkedHashSet<>();
+
+    /**
+     * 已提示過設定不一致的輸出文件，同一文件只提示一次
+     */
+    private final Set<String> notifiedStalePaths = new HashSet<>();
+
+    public TsOutputSyncService(Project project) {
+        this.project = project;
+        this.alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                fileChanged(event.getFile());
+            }
+
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                fileChanged(event.getFile());
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                fileChanged(event.getFile());
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                fileChanged(event.getFile());
+            }
+        }, this);
+    }
+
+    public static TsOutputSyncService getInstance(Project project) {
+        return project.getService(TsOutputSyncService.class);
+    }
+
+    @NotNull
+    @Override
+    public synchronized SyncState getState() {
+        return state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull SyncState state) {
+        this.state = state;
+        this.outputsByClass = null;
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * 記住已保存的文件，之後其包含的類被修改時自動重新生成
+     *
+     * @param outputPath      輸出文件的絕對路徑
+     * @param rootClass       根類的全限定名
+     * @param transactionCode 生成時使用的電文代號，可以為 null
+     * @param includedClasses 文件中包含的所有類的全限定名
+     * @param options         生成時使用的設定快照
+     */
+    public void remember(String outputPath, String rootClass, String transactionCode,
+                         Collection<String> includedClasses, GenerationOptions options) {
+        remember(outputPath, rootClass, transactionCode, includedClasses, Collections.singletonList(rootClass),
+                options);
+    }
+
+    /**
+     * 記住在多根類會話中保存的文件，重新生成時使用同一組根類，嵌套類和重名類的命名保持不變
+     *
+     * @param sessionRoots 生成時同一會話中的所有根類的全限定名，按處理順序排列
+     */
+    public synchronized void remember(String outputPath, String rootClass, String transactionCode,
+                                      Collection<String> includedClasses, List<String> sessionRoots,
+                                      GenerationOptions options) {
+        state.outputs.removeIf(output -> output.path.equals(outputPath));
+        OutputEntry entry = new OutputEntry();
+        entry.path = outputPath;
+        entry.rootClass = rootClass;
+        entry.transactionCode = transactionCode;
+        entry.includedClasses = new ArrayList<>(includedClasses);
+        entry.sessionRoots = new ArrayList<>(sessionRoots);
+        entry.optionsFingerprint = options.getFingerprint();
+        state.outputs.add(entry);
+        notifiedStalePaths.remove(outputPath);
+        outputsByClass = null;
+    }
+
+    /**
+     * 不再跟蹤指定的文件
+     */
+    public synchronized void forget(String outputPath) {
+        if (state.outputs.removeIf(output -> output.path.equals(outputPath))) {
+            outputsByClass = null;
+        }
+    }
+
+    private void fileChanged(PsiFile file) {
+        if (!(file instanceof PsiJavaFile) || !CommonUtils.getSettings().isAutoUpdateSavedFiles()) {
+            return;
+        }
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null) {
+            return;
+        }
+        synchronized (this) {
+            if (state.outputs.isEmpty()) {
+                return;
+            }
+            pendingFiles.add(virtualFile);
+        }
+        alarm.cancelAllRequests();
+        alarm.addRequest(this::flushPendingFiles, DEBOUNCE_DELAY_MS);
+    }
+
+    /**
+     * 將合併後的修改交給後台任務處理
+     */
+    private void flushPendingFiles() {
+        List<VirtualFile> files;
+        synchronized (this) {
+            files = new ArrayList<>(pendingFiles);
+            pendingFiles.clear();
+        }
+        if (files.isEmpty() || project.isDisposed()) {
+            return;
+        }
+
+        new Task.Backgroundable(project, "更新 TypeScript 接口文件", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                regenerate(files, indicator);
+            }
+        }.queue();
+    }
+
+    /**
+     * 重新生成包含了已修改文件中任一類的輸出文件
+     */
+    private void regenerate(List<VirtualFile> changedFiles, ProgressIndicator indicator) {
+        Set<String> changedClasses = ReadAction.compute(() -> {
+            Set<String> classNames = new HashSet<>();
+            PsiManager psiManager = PsiManager.getInstance(project);
+            for (VirtualFile virtualFile : changedFiles) {
+                PsiFile psiFile = virtualFile.isValid() ? psiManager.findFile(virtualFile) : null;
+                if (psiFile == null) {
+                    continue;
+                }
+                for (PsiClass psiClass : PsiTreeUtil.findChildrenOfType(psiFile, PsiClass.class)) {
+                    String qualifiedName = psiClass.getQualifiedName();
+                    if (qualifiedName != null) {
+                        classNames.add(qualifiedName);
+                    }
+                }
+            }
+            return classNames;
+        });
+
+        List<OutputEntry> affectedOutputs = findAffectedOutputs(changedClasses);
+        LOG.debug("已修改的類: ", changedClasses, ", 需要更新的文件數量: ", affectedOutputs.size());
+
+        // 同一會話保存的文件一起重新生成，根類集合與保存時相同，聲明的命名才不會改變；
+        // 保存後設定已改變的文件不能用當前設定重新生成，否則內容和文件名都可能與保存時不同
+        GenerationOptions options = GenerationOptions.current();
+        Map<List<Object>, List<OutputEntry>> outputsBySession = new LinkedHashMap<>();
+        List<String> stalePaths = new ArrayList<>();
+        for (OutputEntry output : affectedOutputs) {
+            if (output.optionsFingerprint != null && !output.optionsFingerprint.equals(options.getFingerprint())) {
+                stalePaths.add(output.path);
+                continue;
+            }
+            outputsBySession.computeIfAbsent(Arrays.asList(output.getSessionRoots(), output.transactionCode),
+                    key -> new ArrayList<>()).add(output);
+        }
+        notifyStaleOutputs(stalePaths);
+
+        List<File> regeneratedFiles = new ArrayList<>();
+        int sessionIndex = 0;
+        for (List<OutputEntry> sessionOutputs : outputsBySession.values()) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) sessionIndex++ / outputsBySession.size());
+            regenerateSession(sessionOutputs, options, regeneratedFiles, indicator);
+        }
+
+        if (!regeneratedFiles.isEmpty()) {
+            LocalFileSystem.getInstance().refreshIoFiles(regeneratedFiles, true, false, null);
+        }
+    }
+
+    /**
+     * 以保存時的根類集合重新生成一個會話的輸出文件
+     * <p>
+     * 已被刪除的根類從集合中移除，其文件不再跟蹤；其餘根類在同一個生成會話中解析，各自渲染到原來的文件
+     * </p>
+     */
+    private void regenerateSession(List<OutputEntry> sessionOutputs, GenerationOptions options,
+                                   List<File> regeneratedFiles, ProgressIndicator indicator) {
+        List<String> sessionRoots = sessionOutputs.get(0).getSessionRoots();
+        String transactionCode = sessionOutputs.get(0).transactionCode;
+        List<PsiClass> rootClasses = ReadAction.compute(() -> {
+            List<PsiClass> classes = new ArrayList<>();
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            for (String rootClass : sessionRoots) {
+                PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(rootClass, scope);
+                if (psiClass != null) {
+                    classes.add(psiClass);
+                }
+            }
+            return classes;
+        });
+        if (rootClasses.isEmpty()) {
+            // 根類都已不存在
+            sessionOutputs.forEach(output -> forget(output.path));
+            return;
+        }
+
+        TypescriptContentGenerator generator = null;
+        for (OutputEntry output : sessionOutputs) {
+            indicator.setText2(output.path);
+            File file = new File(output.path);
+            if (!file.isFile()) {
+                // 文件已被刪除
+                forget(output.path);
+                continue;
+            }
+            if (generator == null) {
+                generator = DtoTypescriptGeneratorService.resolveClasses(project, rootClasses, transactionCode,
+                        options);
+            }
+            if (!generator.getRootClassNames().contains(output.rootClass)) {
+                // 根類已不存在
+                forget(output.path);
+                continue;
+            }
+
+            // 單根類會話與保存時一樣渲染全部聲明，多根類會話只渲染該根類需要的聲明
+            TypescriptContentGenerator sessionGenerator = generator;
+            boolean singleRoot = generator.getRootClassNames().size() == 1;
+            try {
+                IncrementalTsWriter writer = new IncrementalTsWriter(file.getParentFile(), options);
+                writer.write(file.getName(), List.of(output.rootClass), out -> {
+                    if (singleRoot) {
+                        sessionGenerator.renderContent(out);
+                    } else {
+                        sessionGenerator.renderContent(output.rootClass, out);
+                    }
+                });
+                writer.saveManifest();
+                remember(output.path, output.rootClass, transactionCode,
+                        generator.getClassesOfRoot(output.rootClass), generator.getRootClassNames(), options);
+                regeneratedFiles.add(file);
+            } catch (IOException e) {
+                LOG.warn("更新文件 " + output.path + " 失敗", e);
+            }
+        }
+    }
+
+    /**
+     * 提示用戶有文件因設定改變而未自動更新，每個文件只提示一次
+     */
+    private void notifyStaleOutputs(List<String> stalePaths) {
+        List<String> newPaths = new ArrayList<>();
+        synchronized (this) {
+            for (String path : stalePaths) {
+                if (notifiedStalePaths.add(path)) {
+                    newPaths.add(path);
+                }
+            }
+        }
+        if (newPaths.isEmpty()) {
+            return;
+        }
+        LOG.info("設定已改變，未自動更新的文件: " + newPaths);
+        String content = newPaths.size() + " 個 TypeScript 接口文件保存後生成設定已改變，未自動更新，請重新生成: "
+                + String.join(", ", newPaths);
+        NotificationGroupManager.getInstance()
+                .getNotificationGroup("JavaDtoToTypescriptInterface")
+                .createNotification(content, NotificationType.WARNING)
+                .notify(project);
+    }
+
+    /**
+     * 根據反向索引找出包含任一已修改類的輸出文件
+     */
+    private synchronized List<OutputEntry> findAffectedOutputs(Set<String> changedClasses) {
+        if (outputsByClass == null) {
+            outputsByClass = new HashMap<>();
+            for (OutputEntry output : state.outputs) {
+                for (String className : output.includedClasses) {
+                    outputsByClass.computeIfAbsent(className, key -> new HashSet<>()).add(output.path);
+                }
+            }
+        }
+
+        Set<String> affectedPaths = new HashSet<>();
+        for (String className : changedClasses) {
+            affectedPaths.addAll(outputsByClass.getOrDefault(className, Collections.emptySet()));
+        }
+
+        List<OutputEntry> affectedOutputs = new ArrayList<>();
+        for (OutputEntry output : state.outputs) {
+            if (affectedPaths.contains(output.path)) {
+                affectedOutputs.add(output);
+            }
+        }
+        return affectedOutputs;
+    }
+
+    /**
+     * 持久化的跟蹤狀態
+     */
+    public static class SyncState {
+        public List<OutputEntry> outputs = new ArrayList<>();
+    }
+
+    /**
+     * 單個已保存的輸出文件
+     */
+    public static class OutputEntry {
+
+        /**
+         * 輸出文件的絕對路徑
+         */
+        public String path;
+
+        /**
+         * 根類的全限定名
+         */
+        public String rootClass;
+
+        /**
+         * 生成時使用的電文代號
+         */
+        public String transactionCode;
+
+        /**
+         * 文件中包含的所有類
+         */
+        public List<String> includedClasses = new ArrayList<>();
+
+        /**
+         * 生成時同一會話中的所有根類，為空時只有根類本身（舊版本保存的記錄）
+         */
+        public List<String> sessionRoots = new ArrayList<>();
+
+        /**
+         * 生成時的設定指紋，見 {@link GenerationOptions#getFingerprint()}；為空時是舊版本保存的記錄，按當前設定更新
+         */
+        public String optionsFingerprint;
+
+        List<String> getSessionRoots() {
+            return sessionRoots.isEmpty() ? Collections.singletonList(rootClass) : sessionRoots;
+        }
+    }
+}
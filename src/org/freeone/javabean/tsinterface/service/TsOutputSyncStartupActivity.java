@@ -0,0 +1,16 @@
+package org.freeone.javabean.tsinterface.service;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 項目打開後初始化已保存文件的自動更新，使上次會話保存的文件繼續被跟蹤
+ */
+public class TsOutputSyncStartupActivity implements StartupActivity.DumbAware {
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        TsOutputSyncService.getInstance(project);
+    }
+}
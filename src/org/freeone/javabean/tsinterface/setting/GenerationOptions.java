@@ -0,0 +1,158 @@
+package org.freeone.javabean.tsinterface.setting;
+
+import com.intellij.util.messages.Topic;
+
+/**
+ * 一次生成使用的設定快照
+ * <p>
+ * 所有字段在創建後不再改變，生成器在開始時取得一份快照並在整個流程中使用，
+ * 讀取設定只是讀取 final 字段；設定修改後產生新的快照，不影響正在進行的生成。
+ * 全局設定每次保存後通過 {@link #TOPIC} 發布新的快照
+ * </p>
+ */
+public final class GenerationOptions {
+
+    /**
+     * 設定快照變化的應用級別主題，項目級別的訂閱者也會收到
+     */
+    public static final Topic<Listener> TOPIC = Topic.create("Java DTO to TypeScript generation options",
+            Listener.class);
+
+    private final boolean enableDataToString;
+
+    private final boolean useAnnotationJsonProperty;
+
+    private final boolean ignoreParentField;
+
+    private final boolean preserveInheritance;
+
+    private final boolean addOptionalMarkToAllFields;
+
+    private final boolean ignoreSerialVersionUID;
+
+    private final boolean onlyProcessGenericDto;
+
+    private final boolean useTransactionCodePrefix;
+
+    private final String requestSuffix;
+
+    private final String responseSuffix;
+
+    private final int maxTraversalDepth;
+
+    private final String cacheKey;
+
+    private GenerationOptions(JavaBeanToTypescriptInterfaceSettingsState settings) {
+        this.enableDataToString = settings.enableDataToString;
+        this.useAnnotationJsonProperty = settings.useAnnotationJsonProperty;
+        this.ignoreParentField = settings.ignoreParentField;
+        this.preserveInheritance = settings.preserveInheritance;
+        this.addOptionalMarkToAllFields = settings.addOptionalMarkToAllFields;
+        this.ignoreSerialVersionUID = settings.ignoreSerialVersionUID;
+        this.onlyProcessGenericDto = settings.isOnlyProcessGenericDto();
+        this.useTransactionCodePrefix = settings.useTransactionCodePrefix;
+        this.requestSuffix = settings.requestSuffix;
+        this.responseSuffix = settings.responseSuffix;
+        this.maxTraversalDepth = settings.maxTraversalDepth;
+        this.cacheKey = (enableDataToString ? "D" : "-")
+                + (useAnnotationJsonProperty ? "J" : "-")
+                + (ignoreParentField ? "P" : "-")
+                + (preserveInheritance ? "E" : "-")
+                + (addOptionalMarkToAllFields ? "O" : "-")
+                + (ignoreSerialVersionUID ? "S" : "-")
+                + (onlyProcessGenericDto ? "G" : "-");
+    }
+
+    /**
+     * 從設定創建快照
+     */
+    public static GenerationOptions of(JavaBeanToTypescriptInterfaceSettingsState settings) {
+        return new GenerationOptions(settings);
+    }
+
+    /**
+     * 當前全局設定的快照
+     */
+    public static GenerationOptions current() {
+        return JavaBeanToTypescriptInterfaceSettingsState.getInstance().getOptions();
+    }
+
+    public boolean isEnableDataToString() {
+        return enableDataToString;
+    }
+
+    public boolean isUseAnnotationJsonProperty() {
+        return useAnnotationJsonProperty;
+    }
+
+    public boolean isIgnoreParentField() {
+        return ignoreParentField;
+    }
+
+    public boolean isPreserveInheritance() {
+        return preserveInheritance;
+    }
+
+    public boolean isAddOptionalMarkToAllFields() {
+        return addOptionalMarkToAllFields;
+    }
+
+    public boolean isIgnoreSerialVersionUID() {
+        return ignoreSerialVersionUID;
+    }
+
+    public boolean isOnlyProcessGenericDto() {
+        return onlyProcessGenericDto;
+    }
+
+    public boolean isUseTransactionCodePrefix() {
+        return useTransactionCodePrefix;
+    }
+
+    public String getRequestSuffix() {
+        return requestSuffix;
+    }
+
+    public String getResponseSuffix() {
+        return responseSuffix;
+    }
+
+    public int getMaxTraversalDepth() {
+        return maxTraversalDepth;
+    }
+
+    /**
+     * 由影響聲明內容的設定組成的緩存鍵前綴
+     * <p>
+     * 包含生成器構建單個類的聲明時讀取的所有設定，包括解析父類時判斷容器類用到的 onlyProcessGenericDto；
+     * 電文代號、後綴和遍歷深度只影響命名和遍歷範圍，不在緩存的聲明中
+     * </p>
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    /**
+     * 影響輸出文件內容或文件名的全部設定，用於判斷上次寫入的文件是否仍然有效
+     */
+    public String getFingerprint() {
+        return cacheKey
+                + "|" + (useTransactionCodePrefix ? "T" : "-")
+                + "|" + requestSuffix
+                + "|" + responseSuffix
+                + "|" + maxTraversalDepth;
+    }
+
+    /**
+     * 設定快照變化的監聽器
+     */
+    public interface Listener {
+
+        /**
+         * 全局設定保存後調用
+         *
+         * @param options 新的設定快照
+         */
+        void optionsChanged(GenerationOptions options);
+    }
+}
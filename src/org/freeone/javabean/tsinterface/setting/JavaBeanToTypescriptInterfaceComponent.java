@@ -16,9 +16,15 @@ public class JavaBeanToTypescriptInterfaceComponent {
     private JCheckBox useJsonPropertyCheckBox;
     private JCheckBox allowFindClassInAllScope;
     private JCheckBox ignoreParentField;
+    private JCheckBox preserveInheritanceCheckBox;
     private JCheckBox addOptionalMarkToAllFields;
     private JCheckBox ignoreSerialVersionUID;
     private JCheckBox onlyProcessGenericDtoCheckBox;
+    private JSpinner maxTraversalDepthSpinner;
+    private JCheckBox enableDebugLogCheckBox;
+    private JCheckBox showGenerationReportCheckBox;
+
+    private JCheckBox autoUpdateSavedFilesCheckBox;
 
     // Request DTO後綴設定
     private JTable requestDtoSuffixTable;
@@ -101,6 +107,9 @@ public class JavaBeanToTypescriptInterfaceComponent {
         ignoreParentField = createStyledCheckBox("忽略父類字段",
                 "生成時不包含父類字段，僅包含當前類的字段");
 
+        preserveInheritanceCheckBox = createStyledCheckBox("保留繼承關係 (extends 父類接口)",
+                "父類只生成一次獨立的接口，子類使用 extends 並只包含自己聲明的字段");
+
         addOptionalMarkToAllFields = createStyledCheckBox("給所有字段添加可選標記 (?: )",
                 "為 TypeScript 接口中的所有屬性添加可選標記 (?:)");
 
@@ -111,6 +120,25 @@ public class JavaBeanToTypescriptInterfaceComponent {
         onlyProcessGenericDtoCheckBox = createStyledCheckBox("只處理泛型DTO (不處理外層包裝類)",
                 "只為泛型DTO生成電文代號前綴，不處理如 ResponseTemplate 等外層包裝類");
 
+        enableDebugLogCheckBox = createStyledCheckBox("輸出調試日誌",
+                "在 idea.log 中輸出生成過程的詳細信息，排查問題時開啟");
+
+        showGenerationReportCheckBox = createStyledCheckBox("生成後顯示性能報告",
+                "每次生成後通知各階段耗時和計數，並記錄到項目的生成歷史中");
+
+        autoUpdateSavedFilesCheckBox = createStyledCheckBox("DTO 修改後自動更新已保存的文件",
+                "記住保存過的 .ts 文件，其包含的類被修改後在後台只重新生成受影響的文件");
+
+        // 類型遍歷的最大深度
+        JLabel maxTraversalDepthLabel = new JLabel("最大遍歷深度:");
+        maxTraversalDepthLabel.setFont(new Font(maxTraversalDepthLabel.getFont().getName(), Font.PLAIN, 13));
+        maxTraversalDepthSpinner = new JSpinner(new SpinnerNumberModel(64, 1, 1000, 1));
+        maxTraversalDepthSpinner.setToolTipText("從選中類開始解析嵌套類型的最大層數，超出部分生成為 any");
+        JPanel maxTraversalDepthPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        maxTraversalDepthPanel.add(maxTraversalDepthLabel);
+        maxTraversalDepthPanel.add(Box.createHorizontalStrut(8));
+        maxTraversalDepthPanel.add(maxTraversalDepthSpinner);
+
         // 使用內邊距面板包裝
         JPanel optionsPanel = new JPanel();
         optionsPanel.setLayout(new GridLayout(0, 1, 0, 3));
@@ -121,9 +149,14 @@ public class JavaBeanToTypescriptInterfaceComponent {
         optionsPanel.add(useJsonPropertyCheckBox);
         optionsPanel.add(allowFindClassInAllScope);
         optionsPanel.add(ignoreParentField);
+        optionsPanel.add(preserveInheritanceCheckBox);
         optionsPanel.add(addOptionalMarkToAllFields);
         optionsPanel.add(ignoreSerialVersionUID);
         optionsPanel.add(onlyProcessGenericDtoCheckBox);
+        optionsPanel.add(enableDebugLogCheckBox);
+        optionsPanel.add(showGenerationReportCheckBox);
+        optionsPanel.add(autoUpdateSavedFilesCheckBox);
+        optionsPanel.add(maxTraversalDepthPanel);
 
         panel.add(optionsPanel);
 
@@ -568,4 +601,44 @@ public class JavaBeanToTypescriptInterfaceComponent {
     public void setIgnoreSerialVersionUID(boolean selected) {
         ignoreSerialVersionUID.setSelected(selected);
     }
+
+    public int getMaxTraversalDepth() {
+        return (Integer) maxTraversalDepthSpinner.getValue();
+    }
+
+    public void setMaxTraversalDepth(int depth) {
+        maxTraversalDepthSpinner.setValue(depth);
+    }
+
+    public boolean isEnableDebugLog() {
+        return enableDebugLogCheckBox.isSelected();
+    }
+
+    public void setEnableDebugLog(boolean selected) {
+        enableDebugLogCheckBox.setSelected(selected);
+    }
+
+    public boolean isShowGenerationReport() {
+        return showGenerationReportCheckBox.isSelected();
+    }
+
+    public void setShowGenerationReport(boolean selected) {
+        showGenerationReportCheckBox.setSelected(selected);
+    }
+
+    public boolean isAutoUpdateSavedFiles() {
+        return autoUpdateSavedFilesCheckBox.isSelected();
+    }
+
+    public void setAutoUpdateSavedFiles(boolean selected) {
+        autoUpdateSavedFilesCheckBox.setSelected(selected);
+    }
+
+    public boolean isPreserveInheritance() {
+        return preserveInheritanceCheckBox.isSelected();
+    }
+
+    public void setPreserveInheritance(boolean selected) {
+        preserveInheritanceCheckBox.setSelected(selected);
+    }
 }
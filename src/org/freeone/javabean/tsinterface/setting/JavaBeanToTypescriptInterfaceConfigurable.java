@@ -70,6 +70,7 @@ public class JavaBeanToTypescriptInterfaceConfigurable implements Configurable {
         settings.ignoreSerialVersionUID = settingsComponent.getIgnoreSerialVersionUID();
         settings.customDtoSuffixes.clear();
         settings.customDtoSuffixes.addAll(settingsComponent.getCustomDtoSuffixes());
+        settings.publishOptions();
     }
 
     @Override
@@ -4,6 +4,7 @@ import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import org.jetbrains.annotations.NotNull;
@@ -25,10 +26,7 @@ import java.util.List;
 public final class JavaBeanToTypescriptInterfaceProjectSettings
         implements PersistentStateComponent<JavaBeanToTypescriptInterfaceProjectSettings> {
 
-    static {
-        // 確保在類加載時就輸出一條消息，方便調試
-        System.out.println("JavaBeanToTypescriptInterfaceProjectSettings類已加載");
-    }
+    private static final Logger LOG = Logger.getInstance(JavaBeanToTypescriptInterfaceProjectSettings.class);
 
     /**
      * 請求類後綴列表
@@ -49,6 +47,10 @@ public final class JavaBeanToTypescriptInterfaceProjectSettings
      */
     public boolean useGlobalSettings = true;
 
+    public JavaBeanToTypescriptInterfaceProjectSettings() {
+        initializeFromGlobalSettings();
+    }
+
     /**
      * 獲取項目級別的設定實例
      *
@@ -56,11 +58,8 @@ public final class JavaBeanToTypescriptInterfaceProjectSettings
      * @return 項目級別的設定狀態
      */
     public static JavaBeanToTypescriptInterfaceProjectSettings getInstance(Project project) {
-        JavaBeanToTypescriptInterfaceProjectSettings instance = project
-                .getService(JavaBeanToTypescriptInterfaceProjectSettings.class);
-        // 強制初始化後綴列表
-        instance.initializeFromGlobalSettings();
-        return instance;
+        // 後綴列表在創建、加載和全局設定保存時同步，查詢時不再重新初始化
+        return project.getService(JavaBeanToTypescriptInterfaceProjectSettings.class);
     }
 
     /**
@@ -72,9 +71,9 @@ public final class JavaBeanToTypescriptInterfaceProjectSettings
         try {
             JavaBeanToTypescriptInterfaceProjectSettings instance = getInstance(project);
             instance.initializeFromGlobalSettings();
-            System.out.println("成功初始化項目 '" + project.getName() + "' 的設定");
+            LOG.debug("成功初始化項目 '", project.getName(), "' 的設定");
         } catch (Exception e) {
-            System.out.println("初始化項目設定時發生異常: " + e.getMessage());
+            LOG.warn("初始化項目設定時發生異常", e);
         }
     }
 
@@ -87,6 +86,7 @@ public final class JavaBeanToTypescriptInterfaceProjectSettings
     @Override
     public void loadState(@NotNull JavaBeanToTypescriptInterfaceProjectSettings state) {
         XmlSerializerUtil.copyBean(state, this);
+        initializeFromGlobalSettings();
     }
 
     /**
@@ -121,16 +121,13 @@ public final class JavaBeanToTypescriptInterfaceProjectSettings
         JavaBeanToTypescriptInterfaceSettingsState globalSettings = JavaBeanToTypescriptInterfaceSettingsState
                 .getInstance();
 
-        // 無論列表是否為空，都強制從全局設置初始化
-        this.requestDtoSuffixes.clear();
-        this.requestDtoSuffixes.addAll(globalSettings.getRequestDtoSuffixes());
-
-        this.responseDtoSuffixes.clear();
-        this.responseDtoSuffixes.addAll(globalSettings.getResponseDtoSuffixes());
+        // 無論列表是否為空，都強制從全局設置初始化；替換為新列表，正在讀取舊列表的線程不受影響
+        this.requestDtoSuffixes = new ArrayList<>(globalSettings.getRequestDtoSuffixes());
+        this.responseDtoSuffixes = new ArrayList<>(globalSettings.getResponseDtoSuffixes());
 
         // 輸出調試信息
-        System.out.println("已初始化項目設置 - 請求DTO後綴: " + this.requestDtoSuffixes);
-        System.out.println("已初始化項目設置 - 響應DTO後綴: " + this.responseDtoSuffixes);
+        LOG.debug("已初始化項目設置 - 請求DTO後綴: ", this.requestDtoSuffixes);
+        LOG.debug("已初始化項目設置 - 響應DTO後綴: ", this.responseDtoSuffixes);
     }
 
     /**
@@ -144,4 +141,21 @@ public final class JavaBeanToTypescriptInterfaceProjectSettings
         }
         return false; // 項目級別默認不允許
     }
-}
\ No newline at end of file
+
+    /**
+     * 全局設定保存後，重新從全局設置初始化項目的後綴列表
+     */
+    public static final class GlobalOptionsListener implements GenerationOptions.Listener {
+
+        private final Project project;
+
+        public GlobalOptionsListener(Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public void optionsChanged(GenerationOptions options) {
+            getInstance(project).initializeFromGlobalSettings();
+        }
+    }
+}
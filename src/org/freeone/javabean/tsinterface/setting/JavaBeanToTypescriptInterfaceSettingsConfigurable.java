@@ -70,10 +70,15 @@ final class JavaBeanToTypescriptInterfaceSettingsConfigurable implements Configu
                 || component.isUseAnnotationJsonProperty() != settings.isUseAnnotationJsonProperty()
                 || component.isAllowFindClassInAllScope() != settings.isAllowFindClassInAllScope()
                 || component.isIgnoreParentField() != settings.isIgnoreParentField()
+                || component.isPreserveInheritance() != settings.isPreserveInheritance()
                 || component.isAddOptionalMarkToAllFields() != settings.isAddOptionalMarkToAllFields()
                 || component.isIgnoreSerialVersionUID() != settings.isIgnoreSerialVersionUID()
                 || component.isOnlyProcessGenericDto() != settings.isOnlyProcessGenericDto()
                 || component.isUseTransactionCodePrefix() != settings.isUseTransactionCodePrefix()
+                || component.getMaxTraversalDepth() != settings.getMaxTraversalDepth()
+                || component.isEnableDebugLog() != settings.isEnableDebugLog()
+                || component.isShowGenerationReport() != settings.isShowGenerationReport()
+                || component.isAutoUpdateSavedFiles() != settings.isAutoUpdateSavedFiles()
                 || !component.getRequestSuffix().equals(settings.getRequestSuffix())
                 || !component.getResponseSuffix().equals(settings.getResponseSuffix())
                 || !compare(component.getRequestDtoSuffixes(), settings.getRequestDtoSuffixes())
@@ -87,10 +92,15 @@ final class JavaBeanToTypescriptInterfaceSettingsConfigurable implements Configu
         settings.setUseAnnotationJsonProperty(component.isUseAnnotationJsonProperty());
         settings.setAllowFindClassInAllScope(component.isAllowFindClassInAllScope());
         settings.setIgnoreParentField(component.isIgnoreParentField());
+        settings.setPreserveInheritance(component.isPreserveInheritance());
         settings.setAddOptionalMarkToAllFields(component.isAddOptionalMarkToAllFields());
         settings.setIgnoreSerialVersionUID(component.isIgnoreSerialVersionUID());
         settings.setOnlyProcessGenericDto(component.isOnlyProcessGenericDto());
         settings.setUseTransactionCodePrefix(component.isUseTransactionCodePrefix());
+        settings.setMaxTraversalDepth(component.getMaxTraversalDepth());
+        settings.setEnableDebugLog(component.isEnableDebugLog());
+        settings.setShowGenerationReport(component.isShowGenerationReport());
+        settings.setAutoUpdateSavedFiles(component.isAutoUpdateSavedFiles());
         settings.setRequestSuffix(component.getRequestSuffix());
         settings.setResponseSuffix(component.getResponseSuffix());
 
@@ -105,6 +115,9 @@ final class JavaBeanToTypescriptInterfaceSettingsConfigurable implements Configu
         for (String suffix : responseDtoSuffixes) {
             settings.getResponseDtoSuffixes().add(suffix);
         }
+
+        // 所有設定寫入後再發布新的快照
+        settings.publishOptions();
     }
 
     @Override
@@ -114,10 +127,15 @@ final class JavaBeanToTypescriptInterfaceSettingsConfigurable implements Configu
         component.setUseAnnotationJsonProperty(settings.isUseAnnotationJsonProperty());
         component.setAllowFindClassInAllScope(settings.isAllowFindClassInAllScope());
         component.setIgnoreParentField(settings.isIgnoreParentField());
+        component.setPreserveInheritance(settings.isPreserveInheritance());
         component.setAddOptionalMarkToAllFields(settings.isAddOptionalMarkToAllFields());
         component.setIgnoreSerialVersionUID(settings.isIgnoreSerialVersionUID());
         component.setOnlyProcessGenericDto(settings.isOnlyProcessGenericDto());
         component.setUseTransactionCodePrefix(settings.isUseTransactionCodePrefix());
+        component.setMaxTraversalDepth(settings.getMaxTraversalDepth());
+        component.setEnableDebugLog(settings.isEnableDebugLog());
+        component.setShowGenerationReport(settings.isShowGenerationReport());
+        component.setAutoUpdateSavedFiles(settings.isAutoUpdateSavedFiles());
         component.setRequestSuffix(settings.getRequestSuffix());
         component.setResponseSuffix(settings.getResponseSuffix());
 
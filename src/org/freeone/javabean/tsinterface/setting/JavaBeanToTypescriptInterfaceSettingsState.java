@@ -5,8 +5,11 @@ import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.diagnostic.LogLevel;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.util.xmlb.XmlSerializerUtil;
+import com.intellij.util.xmlb.annotations.Transient;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -31,6 +34,11 @@ import java.util.List;
 public final class JavaBeanToTypescriptInterfaceSettingsState
         implements PersistentStateComponent<JavaBeanToTypescriptInterfaceSettingsState> {
 
+    /**
+     * 插件的日誌分類，插件內所有類的 Logger 都屬於此分類
+     */
+    public static final String LOG_CATEGORY = "#org.freeone.javabean.tsinterface";
+
     /**
      * 控制是否將java.util.Date轉換為TypeScript的string類型
      * true: Date類型轉為string類型
@@ -59,6 +67,13 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
      */
     public boolean ignoreParentField = false;
 
+    /**
+     * 控制是否保留繼承關係（不忽略父類字段時生效）
+     * true: 父類生成為獨立的接口，子類使用 extends 並只包含自己聲明的字段
+     * false: 父類字段展開到每個子類中
+     */
+    public boolean preserveInheritance = false;
+
     /**
      * 控制是否為所有屬性添加可選問號（?:）
      * true: 所有屬性都添加可選問號（?:）
@@ -124,9 +139,34 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
      */
     public String responseSuffix = "Resp";
 
+    /**
+     * 解析嵌套類型的最大深度，超出的類生成為 any
+     */
+    public int maxTraversalDepth = 64;
+
+    /**
+     * 是否輸出調試日誌
+     */
+    public boolean enableDebugLog = false;
+
+    /**
+     * 每次生成後是否顯示各階段耗時報告
+     */
+    public boolean showGenerationReport = false;
+
+    /**
+     * 已保存的 .ts 文件在 DTO 修改後是否自動更新
+     */
+    public boolean autoUpdateSavedFiles = true;
+
     // 新增設定：是否只處理泛型DTO而不處理外層包裝類
     private boolean onlyProcessGenericDto = true;
 
+    /**
+     * 當前設定的快照，設定加載或保存後重新創建
+     */
+    private volatile GenerationOptions options;
+
     // 獲取全局服務實例 (已棄用)
     public static JavaBeanToTypescriptInterfaceSettingsState getInstance() {
         return ApplicationManager.getApplication().getService(JavaBeanToTypescriptInterfaceSettingsState.class);
@@ -142,6 +182,29 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
         return project.getService(JavaBeanToTypescriptInterfaceSettingsState.class);
     }
 
+    /**
+     * 獲取當前設定的快照，生成時應取一次快照並在整個流程中使用
+     */
+    @Transient
+    public GenerationOptions getOptions() {
+        GenerationOptions current = options;
+        if (current == null) {
+            current = GenerationOptions.of(this);
+            options = current;
+        }
+        return current;
+    }
+
+    /**
+     * 設定修改完成後調用：重新創建快照並通過 {@link GenerationOptions#TOPIC} 通知訂閱者
+     */
+    public void publishOptions() {
+        GenerationOptions current = GenerationOptions.of(this);
+        options = current;
+        ApplicationManager.getApplication().getMessageBus().syncPublisher(GenerationOptions.TOPIC)
+                .optionsChanged(current);
+    }
+
     @NotNull
     @Override
     public JavaBeanToTypescriptInterfaceSettingsState getState() {
@@ -151,6 +214,8 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
     @Override
     public void loadState(@NotNull JavaBeanToTypescriptInterfaceSettingsState state) {
         XmlSerializerUtil.copyBean(state, this);
+        applyLogLevel();
+        options = null;
 
         // 如果還有舊版本的自定義後綴配置，分類到新的后缀列表中
         if (!customDtoSuffixes.isEmpty()) {
@@ -218,6 +283,14 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
         this.ignoreParentField = ignoreParentField;
     }
 
+    public boolean isPreserveInheritance() {
+        return preserveInheritance;
+    }
+
+    public void setPreserveInheritance(boolean preserveInheritance) {
+        this.preserveInheritance = preserveInheritance;
+    }
+
     public boolean isAddOptionalMarkToAllFields() {
         return addOptionalMarkToAllFields;
     }
@@ -297,8 +370,14 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
         this.useAnnotationJsonProperty = true;
         this.allowFindClassInAllScope = true;
         this.ignoreParentField = false;
+        this.preserveInheritance = false;
         this.addOptionalMarkToAllFields = false;
         this.ignoreSerialVersionUID = true;
+        this.maxTraversalDepth = 64;
+        this.enableDebugLog = false;
+        this.showGenerationReport = false;
+        this.autoUpdateSavedFiles = true;
+        applyLogLevel();
 
         // 重置請求類後綴
         this.requestDtoSuffixes = new ArrayList<>(Arrays.asList(
@@ -317,6 +396,7 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
 
         // 清空舊的配置
         this.customDtoSuffixes.clear();
+        this.options = null;
     }
 
     public boolean isUseTransactionCodePrefix() {
@@ -343,6 +423,46 @@ public final class JavaBeanToTypescriptInterfaceSettingsState
         this.responseSuffix = responseSuffix;
     }
 
+    public boolean isEnableDebugLog() {
+        return enableDebugLog;
+    }
+
+    public void setEnableDebugLog(boolean enableDebugLog) {
+        this.enableDebugLog = enableDebugLog;
+        applyLogLevel();
+    }
+
+    /**
+     * 根據設定調整插件日誌分類的級別，關閉時調試信息不會被構建和輸出
+     */
+    public void applyLogLevel() {
+        Logger.getInstance(LOG_CATEGORY).setLevel(enableDebugLog ? LogLevel.DEBUG : LogLevel.INFO);
+    }
+
+    public boolean isShowGenerationReport() {
+        return showGenerationReport;
+    }
+
+    public void setShowGenerationReport(boolean showGenerationReport) {
+        this.showGenerationReport = showGenerationReport;
+    }
+
+    public boolean isAutoUpdateSavedFiles() {
+        return autoUpdateSavedFiles;
+    }
+
+    public void setAutoUpdateSavedFiles(boolean autoUpdateSavedFiles) {
+        this.autoUpdateSavedFiles = autoUpdateSavedFiles;
+    }
+
+    public int getMaxTraversalDepth() {
+        return maxTraversalDepth;
+    }
+
+    public void setMaxTraversalDepth(int maxTraversalDepth) {
+        this.maxTraversalDepth = maxTraversalDepth;
+    }
+
     // 新增只處理泛型DTO的getter和setter
     public boolean isOnlyProcessGenericDto() {
         return onlyProcessGenericDto;
@@ -0,0 +1,152 @@
+package org.freeone.javabean.tsinterface.util;
+
+import java.util.*;
+
+/**
+ * 類依賴圖
+ * <p>
+ * 節點按加入順序編為連續整數，鄰接關係以壓縮行格式存放在基本類型數組中。
+ * 排序時用迭代版 Tarjan 算法求強連通分量，循環依賴的類歸為一組並按加入順序排列，結果穩定。
+ * </p>
+ */
+public class ClassDependencyGraph {
+
+    private final List<String> nodes = new ArrayList<>();
+
+    private final Map<String, Integer> nodeIds = new HashMap<>();
+
+    private int[] edgeFrom = new int[16];
+
+    private int[] edgeTo = new int[16];
+
+    private int edgeCount = 0;
+
+    /**
+     * 添加節點，已存在時返回原編號
+     */
+    public int addNode(String name) {
+        Integer id = nodeIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        nodeIds.put(name, nodes.size());
+        nodes.add(name);
+        return nodes.size() - 1;
+    }
+
+    /**
+     * 添加 from 依賴 to 的邊，忽略未加入的節點和自環
+     */
+    public void addEdge(String from, String to) {
+        Integer fromId = nodeIds.get(from);
+        Integer toId = nodeIds.get(to);
+        if (fromId == null || toId == null || fromId.equals(toId)) {
+            return;
+        }
+        if (edgeCount == edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+            edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+        }
+        edgeFrom[edgeCount] = fromId;
+        edgeTo[edgeCount] = toId;
+        edgeCount++;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 求強連通分量
+     *
+     * @return 按逆拓撲順序排列的分量，被依賴的分量在前，分量內按加入順序排列
+     */
+    public List<List<String>> stronglyConnectedComponents() {
+        int n = nodes.size();
+
+        // 構建壓縮行格式的鄰接表，同一節點的鄰居按編號排序
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[edgeFrom[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[edgeCount];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < edgeCount; i++) {
+            targets[fill[edgeFrom[i]]++] = edgeTo[i];
+        }
+        for (int i = 0; i < n; i++) {
+            Arrays.sort(targets, offsets[i], offsets[i + 1]);
+        }
+
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] edgePosition = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] sccStack = new int[n];
+        int[] callStack = new int[n];
+        int[] members = new int[n];
+        int sccTop = 0;
+        int nextIndex = 0;
+        Arrays.fill(index, -1);
+
+        List<List<String>> components = new ArrayList<>();
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+
+            int callTop = 0;
+            callStack[callTop++] = root;
+            index[root] = low[root] = nextIndex++;
+            edgePosition[root] = offsets[root];
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                if (edgePosition[v] < offsets[v + 1]) {
+                    int w = targets[edgePosition[v]++];
+                    if (index[w] == -1) {
+                        // 進入鄰居
+                        index[w] = low[w] = nextIndex++;
+                        edgePosition[w] = offsets[w];
+                        sccStack[sccTop++] = w;
+                        onStack[w] = true;
+                        callStack[callTop++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                // 鄰居處理完畢，回到上一層
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+
+                if (low[v] == index[v]) {
+                    int memberCount = 0;
+                    int w;
+                    do {
+                        w = sccStack[--sccTop];
+                        onStack[w] = false;
+                        members[memberCount++] = w;
+                    } while (w != v);
+
+                    Arrays.sort(members, 0, memberCount);
+                    List<String> component = new ArrayList<>(memberCount);
+                    for (int i = 0; i < memberCount; i++) {
+                        component.add(nodes.get(members[i]));
+                    }
+                    components.add(component);
+                }
+            }
+        }
+        return components;
+    }
+}
@@ -0,0 +1,159 @@
+package org.freeone.javabean.tsinterface.util;
+
+import com.intellij.lang.jvm.annotation.JvmAnnotationAttribute;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.compiled.ClsAnnotationImpl;
+import com.intellij.psi.impl.source.tree.java.PsiAnnotationImpl;
+import com.intellij.psi.impl.source.tree.java.PsiNameValuePairImpl;
+
+import java.util.*;
+
+/**
+ * 類的屬性模型
+ * <p>
+ * 每個類只建立一次：先按方法名（不區分大小寫）索引類的所有方法，
+ * 再為每個字段解析 @JsonProperty 指定的名稱和必填註解，規則與 CommonUtils.getJsonPropertyValue 相同。
+ * 字段名稱和是否可選的判斷直接讀取結果，不再為每個字段掃描類的全部方法
+ * </p>
+ */
+public class ClassPropertyModel {
+
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+
+    private final PsiMethod[] allMethods;
+
+    /**
+     * 小寫方法名到方法在 getAllMethods 中的位置
+     */
+    private final Map<String, List<Integer>> methodIndexesByName = new HashMap<>();
+
+    /**
+     * 按字段緩存，父類和子類的同名字段各自解析
+     */
+    private final Map<PsiField, FieldProperty> properties = new HashMap<>();
+
+    private ClassPropertyModel(PsiClass psiClass) {
+        allMethods = psiClass.getAllMethods();
+        for (int index = 0; index < allMethods.length; index++) {
+            methodIndexesByName.computeIfAbsent(allMethods[index].getName().toLowerCase(Locale.ROOT),
+                    key -> new ArrayList<>(1)).add(index);
+        }
+    }
+
+    /**
+     * 為類建立屬性模型
+     */
+    public static ClassPropertyModel build(PsiClass psiClass) {
+        return new ClassPropertyModel(psiClass);
+    }
+
+    /**
+     * 獲取字段的屬性，同一字段只解析一次
+     */
+    public FieldProperty getProperty(PsiField field) {
+        return properties.computeIfAbsent(field, this::resolveProperty);
+    }
+
+    private FieldProperty resolveProperty(PsiField field) {
+        FieldProperty property = new FieldProperty();
+
+        // 字段上的註解優先於訪問器上的
+        property.jsonName = findJsonPropertyValue(field.getAnnotations());
+        if (property.jsonName == null) {
+            for (PsiMethod accessor : findAccessors(field)) {
+                property.jsonName = findJsonPropertyValue(accessor.getAnnotations());
+                if (property.jsonName != null) {
+                    break;
+                }
+            }
+        }
+
+        property.required = CommonUtils.isFieldRequire(field.getAnnotations());
+        return property;
+    }
+
+    /**
+     * 查找字段的 getter 和 setter，名稱不區分大小寫，布爾字段同時查找 is 和 get 開頭的 getter
+     * <p>
+     * 結果保持 getAllMethods 中的順序，與逐個掃描全部方法時找到的先後一致
+     * </p>
+     */
+    private List<PsiMethod> findAccessors(PsiField field) {
+        String name = field.getName();
+        String methodSuffix;
+        if (name.length() > 1 && Character.isLowerCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+            // 第一個字母小寫且第二個字母大寫時保持原樣，例如 aBCField -> getaBCField
+            methodSuffix = name;
+        } else {
+            methodSuffix = name.substring(0, 1).toUpperCase() + name.substring(1);
+        }
+        String getterPrefix = CommonUtils.isBooleanType(field.getType()) ? "is" : "get";
+
+        Set<String> accessorNames = new HashSet<>();
+        accessorNames.add((getterPrefix + methodSuffix).toLowerCase(Locale.ROOT));
+        accessorNames.add(("set" + methodSuffix).toLowerCase(Locale.ROOT));
+        accessorNames.add(("get" + methodSuffix).toLowerCase(Locale.ROOT));
+
+        SortedSet<Integer> indexes = new TreeSet<>();
+        for (String accessorName : accessorNames) {
+            indexes.addAll(methodIndexesByName.getOrDefault(accessorName, Collections.emptyList()));
+        }
+        List<PsiMethod> accessors = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            accessors.add(allMethods[index]);
+        }
+        return accessors;
+    }
+
+    /**
+     * 讀取 @JsonProperty 的 value，支持源碼和已編譯的類
+     */
+    private static String findJsonPropertyValue(PsiAnnotation[] annotations) {
+        for (PsiAnnotation annotation : annotations) {
+            if (annotation instanceof PsiAnnotationImpl) {
+                if (!JSON_PROPERTY.equals(annotation.getQualifiedName())) {
+                    continue;
+                }
+                for (JvmAnnotationAttribute attribute : ((PsiAnnotationImpl) annotation).getAttributes()) {
+                    if ("value".equals(attribute.getAttributeName()) && attribute.getAttributeValue() != null
+                            && attribute instanceof PsiNameValuePairImpl) {
+                        String literalValue = ((PsiNameValuePairImpl) attribute).getLiteralValue();
+                        if (literalValue != null && literalValue.trim().length() > 0) {
+                            return literalValue;
+                        }
+                    }
+                }
+            } else if (annotation instanceof ClsAnnotationImpl) {
+                String value = MyClsGetAnnotationValueUtils.getValue((ClsAnnotationImpl) annotation);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 單個字段解析後的屬性
+     */
+    public static class FieldProperty {
+
+        private String jsonName;
+
+        private boolean required;
+
+        /**
+         * @JsonProperty 指定的名稱，未指定時為 null
+         */
+        public String getJsonName() {
+            return jsonName;
+        }
+
+        /**
+         * 是否有必填註解
+         */
+        public boolean isRequired() {
+            return required;
+        }
+    }
+}
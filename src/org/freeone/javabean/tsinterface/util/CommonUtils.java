@@ -6,6 +6,7 @@ import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.lang.jvm.annotation.JvmAnnotationAttribute;
 import com.intellij.mock.MockProject;
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileChooser.FileChooserDescriptor;
 import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
 import com.intellij.openapi.project.Project;
@@ -28,20 +29,27 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CommonUtils {
 
+    private static final Logger LOG = Logger.getInstance(CommonUtils.class);
+
     public static final List<String> numberTypes = Arrays.asList("byte", "short", "int", "long", "double", "float");
 
     public static final List<String> requireAnnotationShortNameList = Arrays.asList("NotNull", "NotEmpty", "NotBlank");
     private static ExecutorService cachedThreadPool;
+    // 並行生成使用的線程池，核心線程數等於最大線程數
+    private static ExecutorService generationThreadPool;
+    // 並行寫入文件使用的線程池
+    private static ExecutorService fileWriteThreadPool;
     // 統一的 Disposable 實例，確保資源正確釋放
     private static Disposable disposable;
 
     public static boolean isNumberType(PsiType psiType) {
-        return numberTypes.contains(psiType.getCanonicalText())
-                || "java.lang.Number".equalsIgnoreCase(psiType.getCanonicalText())
+        String canonicalText = psiType.getCanonicalText();
+        return numberTypes.contains(canonicalText)
+                || "java.lang.Number".equalsIgnoreCase(canonicalText)
                 || Arrays.stream(psiType.getSuperTypes())
                 .anyMatch(ele -> "java.lang.Number".equalsIgnoreCase(ele.getCanonicalText()));
     }
@@ -144,39 +152,19 @@ public class CommonUtils {
      */
     public static boolean isArrayType(PsiType type) {
 
-        boolean contains = type.getCanonicalText().endsWith("[]");
-        if (contains) {
-            return true;
-        }
-        PsiType[] superTypes = type.getSuperTypes();
-        List<PsiType> collect = Arrays.stream(superTypes)
-                .filter(superType -> superType.getCanonicalText().contains("java.util.Collection<"))
-                .collect(Collectors.toList());
-        if (!collect.isEmpty()) {
-            return true;
-        }
-        return false;
+        return type.getCanonicalText().endsWith("[]") || Arrays.stream(type.getSuperTypes())
+                .anyMatch(superType -> superType.getCanonicalText().contains("java.util.Collection<"));
     }
 
     public static boolean isMap(PsiField field) {
-        String canonicalText = field.getType().getCanonicalText();
-        if (canonicalText.contains("java.util.Map<")) {
-            return true;
-        } else {
-            PsiType[] superTypes = field.getType().getSuperTypes();
-            List<PsiType> collect = Arrays.stream(superTypes)
-                    .filter(superType -> superType.getCanonicalText().contains("java.util.Map<"))
-                    .collect(Collectors.toList());
-            if (!collect.isEmpty()) {
-                return true;
-            }
-            return false;
-        }
+        PsiType type = field.getType();
+        return type.getCanonicalText().contains("java.util.Map<") || Arrays.stream(type.getSuperTypes())
+                .anyMatch(superType -> superType.getCanonicalText().contains("java.util.Map<"));
     }
 
     public static boolean isMapType(PsiType psiType) {
         return psiType.getCanonicalText().contains("java.util.Map") || Arrays.stream(psiType.getSuperTypes())
-                .filter(superType -> superType.getCanonicalText().contains("java.util.Map")).count() > 0;
+                .anyMatch(superType -> superType.getCanonicalText().contains("java.util.Map"));
     }
 
     public static boolean isJavaUtilDateType(PsiType psiType) {
@@ -281,7 +269,15 @@ public class CommonUtils {
                         cachedThreadPool.shutdown();
                         cachedThreadPool = null;
                     }
-                    System.out.println("Disposable 已釋放資源");
+                    if (generationThreadPool != null && !generationThreadPool.isShutdown()) {
+                        generationThreadPool.shutdown();
+                        generationThreadPool = null;
+                    }
+                    if (fileWriteThreadPool != null && !fileWriteThreadPool.isShutdown()) {
+                        fileWriteThreadPool.shutdown();
+                        fileWriteThreadPool = null;
+                    }
+                    LOG.debug("Disposable 已釋放資源");
                 }
 
                 @Override
@@ -308,6 +304,62 @@ public class CommonUtils {
         return cachedThreadPool;
     }
 
+    /**
+     * 獲取並行生成使用的線程池
+     * <p>
+     * 核心線程數與最大線程數相同，提交的任務立即由空閒線程並行處理；
+     * getCachedThreadPool 只有一個核心線程，在隊列填滿之前不會創建其他線程，不適合並行任務。
+     * 空閒的線程會被回收
+     * </p>
+     */
+    public static synchronized ExecutorService getGenerationThreadPool() {
+        if (generationThreadPool == null) {
+            generationThreadPool = newWorkerPool("DTO to TypeScript generation", getGenerationThreadCount());
+        }
+        return generationThreadPool;
+    }
+
+    /**
+     * 並行生成線程池的線程數，即可同時進行的生成任務數量
+     */
+    public static int getGenerationThreadCount() {
+        return Math.max(Runtime.getRuntime().availableProcessors(), 2);
+    }
+
+    /**
+     * 獲取並行寫入文件使用的線程池
+     * <p>
+     * 與生成分開，保存文件時不會排在生成任務之後；寫入以 I/O 為主，線程數限制在 2 到 8 之間
+     * </p>
+     */
+    public static synchronized ExecutorService getFileWriteThreadPool() {
+        if (fileWriteThreadPool == null) {
+            fileWriteThreadPool = newWorkerPool("DTO to TypeScript file write",
+                    Math.min(Math.max(Runtime.getRuntime().availableProcessors(), 2), 8));
+        }
+        return fileWriteThreadPool;
+    }
+
+    /**
+     * 創建固定線程數的線程池，線程為守護線程，空閒 60 秒後回收
+     */
+    private static ExecutorService newWorkerPool(String name, int threadCount) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threadCount,
+                threadCount,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + " " + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
     /**
      * 获取一个文件选择描述器
      *
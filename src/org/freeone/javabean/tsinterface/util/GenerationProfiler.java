@@ -0,0 +1,201 @@
+package org.freeone.javabean.tsinterface.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 生成過程的分階段計時器
+ * <p>
+ * 階段可以嵌套，進入內層階段時暫停外層計時，因此各階段時間互不重疊，相加即為總耗時。
+ * 只在單個生成器所在的線程中使用，不做同步。
+ * </p>
+ */
+public class GenerationProfiler {
+
+    /**
+     * 計時階段
+     */
+    public enum Phase {
+        TRAVERSAL("類型解析與遍歷"),
+        USAGE_ANALYSIS("使用情境分析"),
+        CLASSIFICATION("請求/響應分類"),
+        NESTED_NAMING("嵌套類命名"),
+        SORTING("依賴排序"),
+        RENDERING("渲染輸出");
+
+        private final String displayName;
+
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    private Phase[] phaseStack = new Phase[4];
+
+    private int stackSize = 0;
+
+    private long segmentStart;
+
+    /**
+     * 遍歷中進入的類數量
+     */
+    private int classesVisited;
+
+    /**
+     * 聲明緩存命中的類數量
+     */
+    private int cacheHits;
+
+    /**
+     * 使用情境索引查詢次數
+     */
+    private int usageLookups;
+
+    /**
+     * 清理過的文檔註釋數量
+     */
+    private int commentsCleaned;
+
+    /**
+     * 類型分類次數
+     */
+    private int typesClassified;
+
+    /**
+     * 類型分類緩存命中次數
+     */
+    private int typeCacheHits;
+
+    /**
+     * 輸出的字符數
+     */
+    private long charsEmitted;
+
+    /**
+     * 進入階段，外層階段暫停計時
+     */
+    public void enter(Phase phase) {
+        long now = System.nanoTime();
+        if (stackSize > 0) {
+            phaseNanos[phaseStack[stackSize - 1].ordinal()] += now - segmentStart;
+        }
+        if (stackSize == phaseStack.length) {
+            phaseStack = Arrays.copyOf(phaseStack, stackSize * 2);
+        }
+        phaseStack[stackSize++] = phase;
+        segmentStart = now;
+    }
+
+    /**
+     * 離開最近進入的階段，外層階段恢復計時
+     */
+    public void exit() {
+        if (stackSize == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        phaseNanos[phaseStack[--stackSize].ordinal()] += now - segmentStart;
+        segmentStart = now;
+    }
+
+    public void classVisited() {
+        classesVisited++;
+    }
+
+    public void cacheHit() {
+        cacheHits++;
+    }
+
+    public void usageLookup() {
+        usageLookups++;
+    }
+
+    public void commentCleaned() {
+        commentsCleaned++;
+    }
+
+    public void typeClassified() {
+        typesClassified++;
+    }
+
+    public void typeCacheHit() {
+        typeCacheHits++;
+    }
+
+    public void charsEmitted(long count) {
+        charsEmitted += count;
+    }
+
+    /**
+     * 清空計時和計數
+     */
+    public void reset() {
+        Arrays.fill(phaseNanos, 0L);
+        Arrays.fill(phaseStack, 0, stackSize, null);
+        stackSize = 0;
+        classesVisited = 0;
+        cacheHits = 0;
+        usageLookups = 0;
+        commentsCleaned = 0;
+        typesClassified = 0;
+        typeCacheHits = 0;
+        charsEmitted = 0;
+    }
+
+    /**
+     * 生成當前統計的快照
+     *
+     * @param rootClass 選中類的全限定名
+     */
+    public GenerationReport toReport(String rootClass) {
+        GenerationReport report = new GenerationReport();
+        report.timestamp = System.currentTimeMillis();
+        report.rootClass = rootClass;
+        for (Phase phase : Phase.values()) {
+            report.phaseMicros.put(phase.name(), phaseNanos[phase.ordinal()] / 1000);
+        }
+        report.classesVisited = classesVisited;
+        report.cacheHits = cacheHits;
+        report.usageLookups = usageLookups;
+        report.commentsCleaned = commentsCleaned;
+        report.typesClassified = typesClassified;
+        report.typeCacheHits = typeCacheHits;
+        report.charsEmitted = charsEmitted;
+        return report;
+    }
+
+    /**
+     * 統計寫入字符數的輸出包裝
+     */
+    Appendable counting(Appendable out) {
+        return new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                CharSequence text = csq != null ? csq : "null";
+                out.append(text);
+                charsEmitted += text.length();
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                out.append(csq, start, end);
+                charsEmitted += end - start;
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                out.append(c);
+                charsEmitted++;
+                return this;
+            }
+        };
+    }
+}
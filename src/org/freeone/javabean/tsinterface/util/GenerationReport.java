@@ -0,0 +1,123 @@
+package org.freeone.javabean.tsinterface.util;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 單次生成的性能報告
+ * <p>
+ * 字段保持公開以便由項目的生成歷史直接持久化
+ * </p>
+ */
+public class GenerationReport {
+
+    /**
+     * 生成完成的時間戳（毫秒）
+     */
+    public long timestamp;
+
+    /**
+     * 選中類的全限定名
+     */
+    public String rootClass;
+
+    /**
+     * 階段名稱到耗時（微秒）的映射，各階段不重疊
+     */
+    public Map<String, Long> phaseMicros = new LinkedHashMap<>();
+
+    /**
+     * 遍歷中進入的類數量
+     */
+    public int classesVisited;
+
+    /**
+     * 聲明緩存命中的類數量
+     */
+    public int cacheHits;
+
+    /**
+     * 使用情境索引查詢次數
+     */
+    public int usageLookups;
+
+    /**
+     * 清理過的文檔註釋數量
+     */
+    public int commentsCleaned;
+
+    /**
+     * 字段類型分類次數
+     */
+    public int typesClassified;
+
+    /**
+     * 類型分類緩存命中次數
+     */
+    public int typeCacheHits;
+
+    /**
+     * 輸出的字符數
+     */
+    public long charsEmitted;
+
+    public long getPhaseMicros(GenerationProfiler.Phase phase) {
+        Long micros = phaseMicros.get(phase.name());
+        return micros != null ? micros : 0L;
+    }
+
+    /**
+     * 所有階段的總耗時（微秒）
+     */
+    public long getTotalMicros() {
+        long total = 0;
+        for (Long micros : phaseMicros.values()) {
+            total += micros != null ? micros : 0L;
+        }
+        return total;
+    }
+
+    /**
+     * 單行摘要，用於歷史列表
+     */
+    public String toSummary() {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(timestamp))
+                + "  " + rootClass
+                + "  " + formatMillis(getTotalMicros()) + " ms"
+                + "  類: " + classesVisited
+                + "  緩存命中: " + cacheHits
+                + "  字符: " + charsEmitted;
+    }
+
+    /**
+     * 多行詳細報告，按階段列出耗時和佔比
+     */
+    public String toDetail() {
+        long total = getTotalMicros();
+        StringBuilder builder = new StringBuilder();
+        builder.append(rootClass).append(" 共 ").append(formatMillis(total)).append(" ms\n");
+        for (GenerationProfiler.Phase phase : GenerationProfiler.Phase.values()) {
+            long micros = getPhaseMicros(phase);
+            builder.append("  ").append(phase.getDisplayName()).append(": ")
+                    .append(formatMillis(micros)).append(" ms");
+            if (total > 0) {
+                builder.append(" (").append(micros * 100 / total).append("%)");
+            }
+            builder.append('\n');
+        }
+        builder.append("  遍歷類數: ").append(classesVisited)
+                .append(", 緩存命中: ").append(cacheHits)
+                .append(", 索引查詢: ").append(usageLookups)
+                .append(", 註釋清理: ").append(commentsCleaned)
+                .append(", 類型分類: ").append(typesClassified)
+                .append(" (緩存命中 ").append(typeCacheHits).append(")")
+                .append(", 輸出字符: ").append(charsEmitted);
+        return builder.toString();
+    }
+
+    private static String formatMillis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+}
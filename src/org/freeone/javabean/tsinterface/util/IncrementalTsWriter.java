@@ -0,0 +1,429 @@
+package org.freeone.javabean.tsinterface.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 基於清單的 .ts 文件增量寫入
+ * <p>
+ * 輸出文件夾中保存一份清單，記錄每個輸出文件的內容哈希、寫入後的修改時間和大小、來源 DTO 類和生成設定的哈希。
+ * 內容以流的方式寫入同一文件夾中的臨時文件並同時計算哈希，與清單一致且文件未被改動時刪除臨時文件、保留原文件；
+ * 否則以重命名原子替換目標文件，前端的文件監聽不會看到寫了一半的文件，
+ * 也不會因內容未變的文件重新構建。來源 DTO 已被刪除或改名的輸出文件可以通過 {@link #prune} 清理。
+ * </p>
+ * <p>
+ * 同一文件夾的所有寫入器共享一份清單狀態，按規範路徑加鎖，替換文件和更新清單條目在同一個鎖內完成，
+ * 自動同步與用戶保存或批量導出同時寫入時不會丟失彼此的條目。寫入方法可以在多個線程中同時調用
+ * </p>
+ */
+public final class IncrementalTsWriter {
+
+    private static final Logger LOG = Logger.getInstance(IncrementalTsWriter.class);
+
+    /**
+     * 清單文件名，以點開頭，不會被當作 .ts 文件
+     */
+    public static final String MANIFEST_FILE_NAME = ".dto-ts-manifest.properties";
+
+    private static final String OPTIONS_KEY = "options";
+
+    private static final String FILE_KEY_PREFIX = "file.";
+
+    /**
+     * 規範路徑到文件夾清單狀態的映射
+     */
+    private static final Map<String, DirectoryState> DIRECTORY_STATES = new ConcurrentHashMap<>();
+
+    private final File directory;
+
+    private final File manifestFile;
+
+    /**
+     * 文件夾共享的清單狀態，讀寫都需持有它的鎖
+     */
+    private final DirectoryState state;
+
+    private final String optionsHash;
+
+    /**
+     * 清單中的設定哈希與本次不同時，不信任清單中的內容哈希，全部重新寫入
+     */
+    private final boolean optionsChanged;
+
+    /**
+     * 本次寫入過（包括內容未變）的文件名
+     */
+    private final Set<String> touchedFiles = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger writtenCount = new AtomicInteger();
+
+    private final AtomicInteger unchangedCount = new AtomicInteger();
+
+    private final AtomicInteger deletedCount = new AtomicInteger();
+
+    /**
+     * 取得輸出文件夾的清單狀態，清單文件在其他進程中被修改過時重新讀取，不存在或無法讀取時視為空
+     */
+    public IncrementalTsWriter(File directory, GenerationOptions options) {
+        this.directory = directory;
+        this.manifestFile = new File(directory, MANIFEST_FILE_NAME);
+        this.optionsHash = sha256(options.getFingerprint().getBytes(StandardCharsets.UTF_8));
+        this.state = DIRECTORY_STATES.computeIfAbsent(canonicalPath(directory), key -> new DirectoryState());
+        synchronized (state) {
+            state.reloadIfChanged(manifestFile);
+            this.optionsChanged = !optionsHash.equals(state.optionsHash);
+        }
+    }
+
+    /**
+     * 寫入文本內容
+     *
+     * @see #write(String, Collection, ContentWriter)
+     */
+    public boolean write(String fileName, Collection<String> sourceClasses, String content) throws IOException {
+        return write(fileName, sourceClasses, writer -> writer.write(content));
+    }
+
+    /**
+     * 寫入一個輸出文件，內容與上次寫入相同時保留原文件
+     * <p>
+     * 內容經緩衝直接寫入臨時文件，寫入時同時計算哈希，內存中不保留完整內容；
+     * 臨時文件在鎖外寫入，多個文件可以並行寫入，只有比較、重命名和更新條目在鎖內完成。
+     * 哈希與清單一致且目標文件的修改時間和大小與上次寫入後相同時視為未變；
+     * 修改時間或大小不同（例如被手動編輯過或清單丟失）時讀取目標文件計算哈希比較
+     * </p>
+     *
+     * @param fileName      文件夾中的文件名
+     * @param sourceClasses 文件的來源 DTO 類全限定名，全部不存在時文件會被清理
+     * @param contentWriter 將內容寫入輸出
+     * @return 是否實際寫入了目標文件
+     */
+    public boolean write(String fileName, Collection<String> sourceClasses, ContentWriter contentWriter)
+            throws IOException {
+        Path target = new File(directory, fileName).toPath();
+        Path temp = Files.createTempFile(directory.toPath(), "." + fileName + ".", ".tmp");
+        try {
+            MessageDigest digest = newDigest();
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new DigestOutputStream(Files.newOutputStream(temp), digest), StandardCharsets.UTF_8))) {
+                contentWriter.writeTo(writer);
+            }
+            String hash = toHex(digest.digest());
+
+            synchronized (state) {
+                Entry previous = state.entries.get(fileName);
+                String targetStamp = DirectoryState.stampOf(target.toFile());
+                boolean unchanged = false;
+                if (!targetStamp.isEmpty()) {
+                    unchanged = !optionsChanged && previous != null && previous.hash.equals(hash)
+                            && targetStamp.equals(previous.stamp) || hash.equals(hashOf(target));
+                }
+
+                if (unchanged) {
+                    state.entries.put(fileName, new Entry(hash, sourceClasses, targetStamp));
+                    touchedFiles.add(fileName);
+                    unchangedCount.incrementAndGet();
+                    return false;
+                }
+
+                moveAtomically(temp, target);
+                state.entries.put(fileName,
+                        new Entry(hash, sourceClasses, DirectoryState.stampOf(target.toFile())));
+                touchedFiles.add(fileName);
+            }
+            writtenCount.incrementAndGet();
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 刪除本次沒有寫入、且來源 DTO 類都已不存在的輸出文件
+     * <p>
+     * 只應在導出了整個文件夾的全部 DTO 之後調用；來源類仍然存在的文件會保留，
+     * 因此只導出部分 DTO 時不會誤刪其他文件。沒有記錄來源類的文件不會被清理
+     * </p>
+     *
+     * @param classExists 判斷類全限定名是否仍然存在
+     * @return 被刪除的文件
+     */
+    public List<File> prune(Predicate<String> classExists) {
+        Map<String, Entry> candidates = new HashMap<>();
+        synchronized (state) {
+            for (Map.Entry<String, Entry> item : state.entries.entrySet()) {
+                if (!touchedFiles.contains(item.getKey()) && !item.getValue().sourceClasses.isEmpty()) {
+                    candidates.put(item.getKey(), item.getValue());
+                }
+            }
+        }
+
+        // 查找類可能較慢，在鎖外進行
+        candidates.values().removeIf(entry -> entry.sourceClasses.stream().anyMatch(classExists));
+
+        List<File> deletedFiles = new ArrayList<>();
+        synchronized (state) {
+            for (Map.Entry<String, Entry> item : candidates.entrySet()) {
+                String fileName = item.getKey();
+                // 期間被其他寫入器重新寫入的文件保留
+                if (state.entries.get(fileName) != item.getValue()) {
+                    continue;
+                }
+
+                File file = new File(directory, fileName);
+                try {
+                    Files.deleteIfExists(file.toPath());
+                    state.entries.remove(fileName);
+                    deletedFiles.add(file);
+                    deletedCount.incrementAndGet();
+                    LOG.debug("已刪除來源類不存在的文件: ", file);
+                } catch (IOException e) {
+                    LOG.warn("刪除文件 " + file + " 失敗", e);
+                }
+            }
+        }
+        return deletedFiles;
+    }
+
+    /**
+     * 保存清單，同樣以臨時文件加重命名的方式寫入
+     * <p>
+     * 保存的是文件夾共享的清單狀態，包含同時進行的其他寫入器的條目
+     * </p>
+     */
+    public void saveManifest() throws IOException {
+        synchronized (state) {
+            state.optionsHash = optionsHash;
+            Map<String, String> lines = new TreeMap<>();
+            for (Map.Entry<String, Entry> item : state.entries.entrySet()) {
+                lines.put(FILE_KEY_PREFIX + item.getKey(), item.getValue().format());
+            }
+
+            // 按鍵排序逐行寫入，不寫時間戳，內容不變時清單文件本身也不變
+            StringWriter content = new StringWriter();
+            content.write("# Java DTO to TypeScript 輸出清單，請勿手動修改\n");
+            writeProperty(content, OPTIONS_KEY, optionsHash);
+            for (Map.Entry<String, String> line : lines.entrySet()) {
+                writeProperty(content, line.getKey(), line.getValue());
+            }
+            String manifestContent = content.toString();
+            if (manifestContent.equals(state.savedContent)
+                    && DirectoryState.stampOf(manifestFile).equals(state.stamp)) {
+                return;
+            }
+
+            Path temp = Files.createTempFile(directory.toPath(), MANIFEST_FILE_NAME + ".", ".tmp");
+            try {
+                Files.write(temp, manifestContent.getBytes(StandardCharsets.UTF_8));
+                moveAtomically(temp, manifestFile.toPath());
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            state.savedContent = manifestContent;
+            state.stamp = DirectoryState.stampOf(manifestFile);
+        }
+    }
+
+    /**
+     * 實際寫入的文件數量
+     */
+    public int getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * 內容未變而跳過的文件數量
+     */
+    public int getUnchangedCount() {
+        return unchangedCount.get();
+    }
+
+    /**
+     * 清理刪除的文件數量
+     */
+    public int getDeletedCount() {
+        return deletedCount.get();
+    }
+
+    private static void writeProperty(Writer writer, String key, String value) throws IOException {
+        Properties property = new Properties();
+        property.setProperty(key, value);
+        StringWriter line = new StringWriter();
+        property.store(line, null);
+        // store 的第一行是時間戳註釋，只保留鍵值行，由 Properties 負責轉義
+        String text = line.toString();
+        writer.write(text.substring(text.indexOf('\n') + 1));
+    }
+
+    private static String canonicalPath(File directory) {
+        try {
+            return directory.getCanonicalPath();
+        } catch (IOException e) {
+            return directory.getAbsolutePath();
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    /**
+     * 以流的方式計算文件內容的哈希，讀取失敗時返回 null
+     */
+    private static String hashOf(Path file) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            LOG.debug("讀取文件 " + file + " 失敗，將重新寫入", e);
+            return null;
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte value : bytes) {
+            hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 將文件內容寫入輸出
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * 一個輸出文件夾的清單狀態，由同一文件夾的所有寫入器共享
+     */
+    private static final class DirectoryState {
+
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        private String optionsHash;
+
+        /**
+         * 最後一次讀取或保存時清單文件的修改時間和大小，為 null 表示尚未讀取
+         */
+        private String stamp;
+
+        /**
+         * 最後一次保存的清單內容，內容相同時不再寫入
+         */
+        private String savedContent;
+
+        /**
+         * 清單文件與最後一次讀取或保存時不同時重新讀取，需持有鎖調用
+         */
+        void reloadIfChanged(File manifestFile) {
+            String currentStamp = stampOf(manifestFile);
+            if (currentStamp.equals(stamp)) {
+                return;
+            }
+            stamp = currentStamp;
+            savedContent = null;
+            entries.clear();
+            optionsHash = null;
+
+            Properties manifest = new Properties();
+            if (manifestFile.isFile()) {
+                try (Reader reader = new InputStreamReader(new FileInputStream(manifestFile),
+                        StandardCharsets.UTF_8)) {
+                    manifest.load(reader);
+                } catch (IOException e) {
+                    LOG.warn("讀取清單 " + manifestFile + " 失敗，所有文件將重新寫入", e);
+                    return;
+                }
+            }
+            optionsHash = manifest.getProperty(OPTIONS_KEY);
+            for (String key : manifest.stringPropertyNames()) {
+                if (key.startsWith(FILE_KEY_PREFIX)) {
+                    Entry entry = Entry.parse(manifest.getProperty(key));
+                    if (entry != null) {
+                        entries.put(key.substring(FILE_KEY_PREFIX.length()), entry);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 文件的修改時間和大小，文件不存在時為空字符串
+         */
+        static String stampOf(File file) {
+            return file.isFile() ? file.lastModified() + ":" + file.length() : "";
+        }
+    }
+
+    /**
+     * 清單中的一個輸出文件：內容哈希、來源類和寫入後的修改時間與大小
+     */
+    private static final class Entry {
+
+        private final String hash;
+
+        private final Set<String> sourceClasses;
+
+        /**
+         * 寫入或確認未變時目標文件的修改時間和大小，舊版清單中沒有記錄時為空字符串
+         */
+        private final String stamp;
+
+        Entry(String hash, Collection<String> sourceClasses, String stamp) {
+            this.hash = hash;
+            this.sourceClasses = new TreeSet<>(sourceClasses);
+            this.stamp = stamp;
+        }
+
+        String format() {
+            return hash + "|" + String.join(",", sourceClasses) + "|" + stamp;
+        }
+
+        static Entry parse(String value) {
+            String[] parts = value.split("\\|", -1);
+            if (parts.length < 2 || parts[0].isEmpty()) {
+                return null;
+            }
+            return new Entry(parts[0],
+                    parts[1].isEmpty() ? Collections.emptyList() : Arrays.asList(parts[1].split(",")),
+                    parts.length > 2 ? parts[2] : "");
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.intellij.psi.PsiNameValuePair;
 import com.intellij.psi.javadoc.PsiDocComment;
 import com.intellij.psi.javadoc.PsiDocTag;
 import org.apache.commons.lang3.StringUtils;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -119,17 +120,17 @@ public class TransactionCodeExtractor {
      * @param originalName    原始Java類名
      * @param transactionCode 提取的電文代號
      * @param isRequest       是否為請求類
+     * @param options         生成使用的設定快照
      * @return 新的介面名稱
      */
-    public static String generateInterfaceName(String originalName, String transactionCode, boolean isRequest) {
+    public static String generateInterfaceName(String originalName, String transactionCode, boolean isRequest,
+                                               GenerationOptions options) {
         if (transactionCode == null || transactionCode.isEmpty()) {
             return originalName;
         }
 
         // 獲取設置
-        String suffix = isRequest
-                ? CommonUtils.getSettings().getRequestSuffix()
-                : CommonUtils.getSettings().getResponseSuffix();
+        String suffix = isRequest ? options.getRequestSuffix() : options.getResponseSuffix();
 
         // 創建基本前綴+後綴名稱
         String baseName = transactionCode + suffix;
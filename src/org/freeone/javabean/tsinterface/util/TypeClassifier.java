@@ -0,0 +1,112 @@
+package org.freeone.javabean.tsinterface.util;
+
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字段類型分類
+ * <p>
+ * 只讀取一次類型的規範文本並遍歷一次直接父類型，即可得到類型的種類，
+ * 結果按規範文本在一次生成中緩存，同一類型的字段不再重複遍歷父類型；類型參數不緩存。
+ * 判斷規則與 CommonUtils 中的 isNumberType、isStringType 等方法一致，優先級也與生成器的判斷順序相同
+ * </p>
+ */
+public class TypeClassifier {
+
+    /**
+     * 類型種類，按判斷優先級排列
+     */
+    public enum TypeKind {
+        NUMBER,
+        STRING,
+        BOOLEAN,
+        DATE,
+        MAP,
+        COLLECTION,
+        ARRAY,
+        REFERENCE
+    }
+
+    private final Map<String, TypeKind> kindCache = new HashMap<>();
+
+    private final GenerationProfiler profiler;
+
+    public TypeClassifier(GenerationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * 獲取類型的種類
+     */
+    public TypeKind classify(PsiType type) {
+        String canonicalText = type.getCanonicalText();
+        profiler.typeClassified();
+        if (isTypeParameter(type)) {
+            // 不同類的類型參數規範文本相同（如 T）但上界可能不同，不能共用緩存結果
+            return computeKind(type, canonicalText);
+        }
+        TypeKind cachedKind = kindCache.get(canonicalText);
+        if (cachedKind != null) {
+            profiler.typeCacheHit();
+            return cachedKind;
+        }
+
+        TypeKind kind = computeKind(type, canonicalText);
+        kindCache.put(canonicalText, kind);
+        return kind;
+    }
+
+    /**
+     * 清空緩存，每次生成開始時調用
+     */
+    public void clear() {
+        kindCache.clear();
+    }
+
+    private static boolean isTypeParameter(PsiType type) {
+        return type instanceof PsiClassType && ((PsiClassType) type).resolve() instanceof PsiTypeParameter;
+    }
+
+    private static TypeKind computeKind(PsiType type, String canonicalText) {
+        if (CommonUtils.numberTypes.contains(canonicalText) || "java.lang.Number".equalsIgnoreCase(canonicalText)) {
+            return TypeKind.NUMBER;
+        }
+        if ("char".equalsIgnoreCase(canonicalText)) {
+            return TypeKind.STRING;
+        }
+
+        // 一次遍歷直接父類型，記錄各種類的命中情況，再按優先級決定
+        boolean number = false;
+        boolean string = false;
+        boolean map = canonicalText.contains("java.util.Map");
+        boolean collection = false;
+        for (PsiType superType : type.getSuperTypes()) {
+            String superText = superType.getCanonicalText();
+            number |= "java.lang.Number".equalsIgnoreCase(superText);
+            string |= "java.lang.CharSequence".equalsIgnoreCase(superText);
+            map |= superText.contains("java.util.Map");
+            collection |= superText.contains("java.util.Collection<");
+        }
+
+        if (number) {
+            return TypeKind.NUMBER;
+        } else if (string) {
+            return TypeKind.STRING;
+        } else if ("java.lang.Boolean".equals(canonicalText) || "boolean".equals(canonicalText)) {
+            return TypeKind.BOOLEAN;
+        } else if ("java.util.Date".equals(canonicalText)) {
+            return TypeKind.DATE;
+        } else if (map) {
+            return TypeKind.MAP;
+        } else if (canonicalText.endsWith("[]")) {
+            return TypeKind.ARRAY;
+        } else if (collection) {
+            return TypeKind.COLLECTION;
+        }
+        return TypeKind.REFERENCE;
+    }
+}
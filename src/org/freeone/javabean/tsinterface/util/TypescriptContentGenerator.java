@@ -1,23 +1,33 @@
 package org.freeone.javabean.tsinterface.util;
 
 import com.intellij.lang.jvm.JvmClassKind;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.PsiClassReferenceType;
 import com.intellij.psi.javadoc.PsiDocComment;
-import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
 import org.apache.commons.lang3.StringUtils;
-import org.freeone.javabean.tsinterface.setting.JavaBeanToTypescriptInterfaceSettingsState;
+import org.freeone.javabean.tsinterface.index.DtoEndpointUsageIndex;
+import org.freeone.javabean.tsinterface.model.*;
+import org.freeone.javabean.tsinterface.service.TsDeclarationCacheService;
+import org.freeone.javabean.tsinterface.setting.GenerationOptions;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * TypeScript 介面生成器
  * 用於將 Java 類轉換為 TypeScript 介面
+ * <p>
+ * 遍歷時為每個類建立一次聲明模型，改名和跳過只修改符號表，最後一次性渲染輸出
+ * </p>
  */
 public class TypescriptContentGenerator {
 
+    private static final Logger LOG = Logger.getInstance(TypescriptContentGenerator.class);
+
     // ==================== 常量定義 ====================
 
     /**
@@ -33,29 +43,29 @@ public class TypescriptContentGenerator {
     // ==================== 狀態與緩存 ====================
 
     /**
-     * 處理入口追蹤 - 避免循環引用
+     * 已進入遍歷的類 - 避免循環引用
      */
-    private final List<String> processEntryList = new ArrayList<>();
+    private final Set<String> visitedClasses = new HashSet<>();
 
     /**
-     * 已成功處理的類
+     * 已成功處理的類，按依賴完成順序排列
      */
-    private final List<String> processedClasses = new ArrayList<>();
+    private final Set<String> processedClasses = new LinkedHashSet<>();
 
     /**
-     * 類的註釋映射
+     * 因超出最大深度而未展開的類
      */
-    private final Map<String, String> classCommentMap = new HashMap<>();
+    private final Set<String> depthLimitedClasses = new HashSet<>();
 
     /**
-     * 類對應的TypeScript介面內容
+     * 類對應的TypeScript聲明
      */
-    private final Map<String, String> classContentMap = new HashMap<>();
+    private final Map<String, TsDeclaration> declarationMap = new HashMap<>();
 
     /**
-     * 類名到TypeScript介面名稱的映射
+     * 類名到TypeScript名稱的符號表
      */
-    private final Map<String, String> tsInterfaceNameMap = new HashMap<>();
+    private final TsSymbolTable symbolTable = new TsSymbolTable();
 
     /**
      * 類引用關係 - 記錄每個類引用了哪些其他類
@@ -67,24 +77,102 @@ public class TypescriptContentGenerator {
      */
     private final Map<String, Set<String>> referencedByMap = new HashMap<>();
 
+    /**
+     * 類使用情境分析結果
+     */
+    private final Map<String, ClassUsageInfo> classUsageCache = new HashMap<>();
+
+    /**
+     * 正在生成聲明的類，記錄其依賴和引用關係
+     */
+    private ClassFrame currentFrame;
+
+    /**
+     * 分階段計時和計數
+     */
+    private final GenerationProfiler profiler = new GenerationProfiler();
+
+    /**
+     * 字段類型分類，按規範文本緩存
+     */
+    private final TypeClassifier typeClassifier = new TypeClassifier(profiler);
+
+    /**
+     * 本次生成選中的根類
+     */
+    private final List<PsiClass> rootClasses = new ArrayList<>();
+
+    /**
+     * 根類的全限定名，在讀操作中解析時記錄，渲染和報告時不再訪問 PSI
+     */
+    private final List<String> rootClassNames = new ArrayList<>();
+
+    /**
+     * 每個類被哪些根類需要，按根類順序排列
+     */
+    private final Map<String, Set<String>> rootsByClass = new LinkedHashMap<>();
+
+    /**
+     * 已分類排序、等待渲染的聲明
+     */
+    private List<TsDeclaration> orderedDeclarations;
+
     /**
      * 項目對象
      */
     private final Project project;
 
+    /**
+     * 項目級別聲明緩存
+     */
+    private final TsDeclarationCacheService declarationCache;
+
+    /**
+     * 當前設定對應的緩存鍵
+     */
+    private final String cacheOptionsKey;
+
+    /**
+     * 本次生成使用的設定快照，生成過程中不會改變
+     */
+    private final GenerationOptions options;
+
     /**
      * 電文代號
      */
     private String transactionCode;
 
+    /**
+     * 類的使用次數來源，默認查詢 DTO 使用情境索引
+     */
+    private Function<PsiClass, DtoEndpointUsageIndex.EndpointUsage> usageLookup;
+
     /**
      * 構造器
      */
     public TypescriptContentGenerator(Project project, String transactionCode) {
+        this(project, transactionCode, GenerationOptions.current());
+    }
+
+    /**
+     * @param options 本次生成使用的設定快照，多個生成器可以並行使用不同的設定
+     */
+    public TypescriptContentGenerator(Project project, String transactionCode, GenerationOptions options) {
         this.project = project;
+        this.options = options;
+        this.declarationCache = project != null ? TsDeclarationCacheService.getInstance(project) : null;
+        this.cacheOptionsKey = options.getCacheKey();
         if (StringUtils.isNotBlank(transactionCode)) {
             this.transactionCode = transactionCode;
         }
+        this.usageLookup = psiClass -> DtoEndpointUsageIndex.getUsage(project, psiClass);
+    }
+
+    /**
+     * 替換類使用次數的來源，用於沒有文件索引的獨立環境
+     */
+    public void setUsageLookup(Function<PsiClass, DtoEndpointUsageIndex.EndpointUsage> usageLookup) {
+        this.usageLookup = usageLookup;
     }
 
     // ==================== 公共接口方法 ====================
@@ -96,11 +184,47 @@ public class TypescriptContentGenerator {
      * @param needDefault   是否需要默認值
      */
     public void processPsiClass(PsiClass selectedClass, boolean needDefault) {
+        processPsiClasses(Collections.singletonList(selectedClass));
+    }
+
+    /**
+     * 在同一次遍歷中處理多個根類
+     * <p>
+     * 各根類共享已訪問的類，共同依賴的類只解析和生成一次，並記錄每個類被哪些根類需要
+     * </p>
+     *
+     * @param selectedClasses 選中的類
+     */
+    public void processPsiClasses(Collection<PsiClass> selectedClasses) {
         // 重置狀態
         clearState();
+        rootClasses.addAll(selectedClasses);
+        for (PsiClass selectedClass : rootClasses) {
+            String qualifiedName = selectedClass.getQualifiedName();
+            if (qualifiedName != null) {
+                rootClassNames.add(qualifiedName);
+            }
+        }
+
+        // 生成類及其依賴類的TypeScript聲明
+        profiler.enter(GenerationProfiler.Phase.TRAVERSAL);
+        try {
+            for (PsiClass selectedClass : rootClasses) {
+                traverseClasses(selectedClass);
+            }
 
-        // 生成類的TypeScript內容
-        createTypescriptContentForClass(selectedClass);
+            // 只在深處出現過的類沒有聲明，引用處生成為 any
+            for (String qualifiedName : depthLimitedClasses) {
+                if (!visitedClasses.contains(qualifiedName)) {
+                    LOG.debug("超出最大遍歷深度，跳過類: ", qualifiedName);
+                    symbolTable.markSkipped(qualifiedName);
+                }
+            }
+
+            attributeToRoots();
+        } finally {
+            profiler.exit();
+        }
     }
 
     /**
@@ -111,62 +235,232 @@ public class TypescriptContentGenerator {
      * @return 合併後的TypeScript內容
      */
     public String mergeContent(PsiClass selectedClass, boolean needDefault) {
-        // 日誌輸出引用關係
-        logReferenceRelationships();
+        prepareContent(selectedClass);
+        return renderContent();
+    }
 
-        List<String> contentList = new ArrayList<>();
-        String qualifiedName = selectedClass.getQualifiedName();
+    /**
+     * 將最終合併的TypeScript內容逐個聲明寫入輸出，不在內存中拼接完整文本
+     *
+     * @param selectedClass 選中的類
+     * @param needDefault   是否需要默認值
+     * @param out           輸出目標，例如文件的 Writer
+     */
+    public void mergeContent(PsiClass selectedClass, boolean needDefault, Appendable out) throws IOException {
+        prepareContent(selectedClass);
+        renderContent(out);
+    }
+
+    /**
+     * 對已處理的聲明分類、命名並排序，需與 processPsiClass 在同一次讀操作中調用
+     * <p>
+     * 完成後渲染只依賴聲明模型和符號表，不再訪問 PSI，可以在讀操作之外進行
+     * </p>
+     *
+     * @param selectedClass 選中的類
+     */
+    public void prepareContent(PsiClass selectedClass) {
+        orderedDeclarations = collectOrderedDeclarations(Collections.singletonList(selectedClass));
+    }
 
-        // 對內容分類及排序的容器
-        Map<String, String> requestClasses = new LinkedHashMap<>();
-        Map<String, String> requestDependencyClasses = new LinkedHashMap<>();
-        Map<String, String> responseClasses = new LinkedHashMap<>();
-        Map<String, String> otherClasses = new LinkedHashMap<>();
+    /**
+     * 對 processPsiClasses 處理過的所有根類分類、命名並排序
+     * <p>
+     * 共同依賴的類只出現一次，所有根類的命名和排序在同一個符號表中決定，合併輸出和按根類輸出保持一致
+     * </p>
+     */
+    public void prepareContent() {
+        orderedDeclarations = collectOrderedDeclarations(rootClasses);
+    }
+
+    /**
+     * 渲染已準備好的聲明
+     *
+     * @return 合併後的TypeScript內容
+     */
+    public String renderContent() {
+        List<TsDeclaration> declarations = getOrderedDeclarations();
+        profiler.enter(GenerationProfiler.Phase.RENDERING);
+        try {
+            String content = new TsDeclarationRenderer(symbolTable).render(declarations);
+            profiler.charsEmitted(content.length());
+            return content;
+        } finally {
+            profiler.exit();
+        }
+    }
+
+    /**
+     * 將已準備好的聲明逐個寫入輸出
+     *
+     * @param out 輸出目標，例如文件的 Writer
+     */
+    public void renderContent(Appendable out) throws IOException {
+        List<TsDeclaration> declarations = getOrderedDeclarations();
+        profiler.enter(GenerationProfiler.Phase.RENDERING);
+        try {
+            new TsDeclarationRenderer(symbolTable).render(declarations, profiler.counting(out));
+        } finally {
+            profiler.exit();
+        }
+    }
 
-        // 用於追蹤主類前綴的映射
-        Map<String, String> mainClassPrefixMap = new HashMap<>();
+    /**
+     * 只渲染指定根類需要的聲明，順序與合併輸出一致
+     *
+     * @param rootQualifiedName 根類的全限定名
+     * @return 該根類的TypeScript內容
+     */
+    public String renderContent(String rootQualifiedName) {
+        List<TsDeclaration> declarations = getDeclarationsForRoot(rootQualifiedName);
+        profiler.enter(GenerationProfiler.Phase.RENDERING);
+        try {
+            String content = new TsDeclarationRenderer(symbolTable).render(declarations);
+            profiler.charsEmitted(content.length());
+            return content;
+        } finally {
+            profiler.exit();
+        }
+    }
 
-        // 跳過的類名集合
-        Set<String> skippedClassNames = new HashSet<>();
+    /**
+     * 將指定根類需要的聲明逐個寫入輸出
+     *
+     * @param rootQualifiedName 根類的全限定名
+     * @param out               輸出目標，例如文件的 Writer
+     */
+    public void renderContent(String rootQualifiedName, Appendable out) throws IOException {
+        List<TsDeclaration> declarations = getDeclarationsForRoot(rootQualifiedName);
+        profiler.enter(GenerationProfiler.Phase.RENDERING);
+        try {
+            new TsDeclarationRenderer(symbolTable).render(declarations, profiler.counting(out));
+        } finally {
+            profiler.exit();
+        }
+    }
 
-        // 處理主類
-        processPrimaryClass(selectedClass, requestClasses, responseClasses, mainClassPrefixMap, skippedClassNames);
+    /**
+     * 獲取本次生成的根類全限定名，按處理順序排列
+     * <p>
+     * 名稱在解析時記錄，不需要讀鎖
+     * </p>
+     */
+    public List<String> getRootClassNames() {
+        return Collections.unmodifiableList(rootClassNames);
+    }
 
-        // 處理其他類
-        processSecondaryClasses(qualifiedName, requestClasses, requestDependencyClasses, responseClasses, otherClasses, skippedClassNames);
+    /**
+     * 獲取需要指定類的根類
+     *
+     * @param qualifiedName 類的全限定名
+     * @return 根類全限定名集合，類不屬於任何根類時為空
+     */
+    public Set<String> getRootsOf(String qualifiedName) {
+        Set<String> roots = rootsByClass.get(qualifiedName);
+        return roots != null ? Collections.unmodifiableSet(roots) : Collections.emptySet();
+    }
 
-        // 處理嵌套類命名
-        processNestedClassesNaming();
+    /**
+     * 獲取根類直接或間接包含的所有類，包括根類本身
+     *
+     * @param rootQualifiedName 根類的全限定名
+     * @return 類的全限定名集合
+     */
+    public Set<String> getClassesOfRoot(String rootQualifiedName) {
+        Set<String> classes = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<String>> entry : rootsByClass.entrySet()) {
+            if (entry.getValue().contains(rootQualifiedName)) {
+                classes.add(entry.getKey());
+            }
+        }
+        return classes;
+    }
 
-        // 構建所有類的映射
-        Map<String, String> allClasses = new HashMap<>();
-        allClasses.putAll(requestClasses);
-        allClasses.putAll(requestDependencyClasses);
-        allClasses.putAll(responseClasses);
-        allClasses.putAll(otherClasses);
+    private List<TsDeclaration> getDeclarationsForRoot(String rootQualifiedName) {
+        List<TsDeclaration> declarations = new ArrayList<>();
+        for (TsDeclaration declaration : getOrderedDeclarations()) {
+            if (getRootsOf(declaration.getQualifiedName()).contains(rootQualifiedName)) {
+                declarations.add(declaration);
+            }
+        }
+        return declarations;
+    }
 
-        // 應用重命名
-        applyRenamingToAllClasses(allClasses);
+    private List<TsDeclaration> getOrderedDeclarations() {
+        if (orderedDeclarations == null) {
+            throw new IllegalStateException("渲染前需要先調用 prepareContent");
+        }
+        return orderedDeclarations;
+    }
 
-        // 對請求依賴類和響應類進行拓撲排序
-        sortByDependencies(requestDependencyClasses);
-        sortByDependencies(responseClasses);
+    /**
+     * 獲取最近一次生成的性能報告，應在渲染之後調用
+     * <p>
+     * 報告標題使用解析時記錄的根類名稱，可以在讀操作之外調用
+     * </p>
+     */
+    public GenerationReport getReport() {
+        return profiler.toReport(String.join(", ", rootClassNames));
+    }
+
+    /**
+     * 對已處理的聲明分類、命名並排序，返回輸出順序
+     */
+    private List<TsDeclaration> collectOrderedDeclarations(List<PsiClass> selectedClasses) {
+        // 日誌輸出引用關係
+        logReferenceRelationships();
+
+        Set<String> rootNames = new HashSet<>();
+        for (PsiClass selectedClass : selectedClasses) {
+            rootNames.add(selectedClass.getQualifiedName());
+        }
+
+        // 對聲明分類及排序的容器
+        Map<String, TsDeclaration> requestClasses = new LinkedHashMap<>();
+        Map<String, TsDeclaration> requestDependencyClasses = new LinkedHashMap<>();
+        Map<String, TsDeclaration> responseClasses = new LinkedHashMap<>();
+        Map<String, TsDeclaration> otherClasses = new LinkedHashMap<>();
 
-        // 按順序添加到結果列表
-        contentList.addAll(requestClasses.values());
-        contentList.addAll(requestDependencyClasses.values());
-        contentList.addAll(responseClasses.values());
-        contentList.addAll(otherClasses.values());
+        profiler.enter(GenerationProfiler.Phase.CLASSIFICATION);
+        try {
+            // 處理主類
+            for (PsiClass selectedClass : selectedClasses) {
+                processPrimaryClass(selectedClass, requestClasses, responseClasses);
+            }
 
-        // 處理最終內容
-        List<String> processedContentList = performFinalCleanup(contentList);
+            // 處理其他類
+            processSecondaryClasses(rootNames, requestClasses, requestDependencyClasses, responseClasses,
+                    otherClasses);
+        } finally {
+            profiler.exit();
+        }
 
-        // 處理跳過的類引用
-        if (!skippedClassNames.isEmpty()) {
-            return cleanupSkippedClassReferences(processedContentList, skippedClassNames);
+        // 處理嵌套類命名，只修改符號表
+        profiler.enter(GenerationProfiler.Phase.NESTED_NAMING);
+        try {
+            processNestedClassesNaming();
+        } finally {
+            profiler.exit();
         }
 
-        return String.join("\n", processedContentList);
+        // 對請求依賴類和響應類進行拓撲排序
+        profiler.enter(GenerationProfiler.Phase.SORTING);
+        try {
+            sortByDependencies(requestDependencyClasses);
+            sortByDependencies(responseClasses);
+        } finally {
+            profiler.exit();
+        }
+
+        // 按順序收集聲明
+        List<TsDeclaration> declarations = new ArrayList<>();
+        declarations.addAll(requestClasses.values());
+        declarations.addAll(requestDependencyClasses.values());
+        declarations.addAll(responseClasses.values());
+        declarations.addAll(otherClasses.values());
+
+        // 渲染時引用名稱和跳過的類統一由符號表解析
+        return declarations;
     }
 
     /**
@@ -174,103 +468,227 @@ public class TypescriptContentGenerator {
      */
     public void clearState() {
         processedClasses.clear();
-        classContentMap.clear();
-        processEntryList.clear();
-        tsInterfaceNameMap.clear();
-        classCommentMap.clear();
+        declarationMap.clear();
+        visitedClasses.clear();
+        classUsageCache.clear();
+        depthLimitedClasses.clear();
+        symbolTable.clear();
         classReferences.clear();
         referencedByMap.clear();
+        currentFrame = null;
+        rootClasses.clear();
+        rootClassNames.clear();
+        rootsByClass.clear();
+        orderedDeclarations = null;
+        typeClassifier.clear();
+        profiler.reset();
     }
 
     // ==================== 核心處理邏輯 ====================
 
     /**
-     * 為單個類生成TypeScript介面內容
+     * 以顯式棧深度優先遍歷選中類的依賴圖
+     * <p>
+     * 每個類只生成一次聲明，依賴類全部完成後才記為已處理，順序與遞歸後序一致。
+     * 每次出入棧前檢查取消，在後台任務中可及時中止
+     * </p>
+     *
+     * @param rootClass 選中的類
+     */
+    private void traverseClasses(PsiClass rootClass) {
+        int maxDepth = options.getMaxTraversalDepth();
+        Deque<ClassFrame> stack = new ArrayDeque<>();
+
+        ClassFrame rootFrame = visitClass(rootClass, 0, maxDepth);
+        if (rootFrame != null) {
+            stack.push(rootFrame);
+        }
+
+        while (!stack.isEmpty()) {
+            ProgressManager.checkCanceled();
+            ClassFrame frame = stack.peek();
+            if (frame.nextDependency < frame.dependencies.size()) {
+                PsiClass dependency = frame.dependencies.get(frame.nextDependency++);
+                ClassFrame dependencyFrame = visitClass(dependency, frame.depth + 1, maxDepth);
+                if (dependencyFrame != null) {
+                    stack.push(dependencyFrame);
+                }
+            } else {
+                stack.pop();
+                processedClasses.add(frame.qualifiedName);
+            }
+        }
+    }
+
+    /**
+     * 從每個根類沿引用關係查找可達的聲明，記錄類與根類的歸屬
+     */
+    private void attributeToRoots() {
+        for (PsiClass rootClass : rootClasses) {
+            String rootName = rootClass.getQualifiedName();
+            if (rootName == null || !declarationMap.containsKey(rootName)) {
+                continue;
+            }
+
+            Deque<String> pending = new ArrayDeque<>();
+            Set<String> reached = new HashSet<>();
+            pending.push(rootName);
+            reached.add(rootName);
+            while (!pending.isEmpty()) {
+                String className = pending.pop();
+                rootsByClass.computeIfAbsent(className, key -> new LinkedHashSet<>()).add(rootName);
+                for (String referencedClass : getDependencies(className)) {
+                    if (declarationMap.containsKey(referencedClass) && reached.add(referencedClass)) {
+                        pending.push(referencedClass);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 類直接依賴的類，合併遍歷時記錄的引用和聲明中的類型引用
+     */
+    private Set<String> getDependencies(String className) {
+        Set<String> dependencies = new LinkedHashSet<>(classReferences.getOrDefault(className,
+                Collections.emptySet()));
+        TsDeclaration declaration = declarationMap.get(className);
+        if (declaration != null) {
+            dependencies.addAll(declaration.getReferencedClasses());
+        }
+        return dependencies;
+    }
+
+    /**
+     * 進入單個類，生成或從緩存取出其聲明
      *
      * @param psiClass Java類對象
-     * @return 生成的介面名稱
+     * @param depth    距選中類的層數
+     * @param maxDepth 最大遍歷深度
+     * @return 類的遍歷幀，已處理、無需生成或超出深度時返回 null
      */
-    private String createTypescriptContentForClass(PsiClass psiClass) {
+    private ClassFrame visitClass(PsiClass psiClass, int depth, int maxDepth) {
         if (psiClass == null) {
-            return "any";
+            return null;
         }
 
         // 獲取類的基本信息
         String simpleClassName = psiClass.getName();
         String qualifiedName = psiClass.getQualifiedName();
-
-        // 處理泛型或特殊情況
-        if (qualifiedName == null) {
-            return simpleClassName != null ? simpleClassName : "any";
+        if (qualifiedName == null || visitedClasses.contains(qualifiedName)) {
+            return null;
         }
 
-        // 檢查是否已處理過
-        if (processedClasses.contains(qualifiedName)) {
-            return getInterfaceName(qualifiedName);
+        // 只為類和枚舉生成定義
+        JvmClassKind classKind = psiClass.getClassKind();
+        if (!classKind.equals(JvmClassKind.CLASS) && !classKind.equals(JvmClassKind.ENUM)) {
+            return null;
         }
 
-        // 避免循環依賴
-        if (processEntryList.contains(qualifiedName)) {
-            return getInterfaceName(qualifiedName);
+        if (depth > maxDepth) {
+            depthLimitedClasses.add(qualifiedName);
+            return null;
         }
-        processEntryList.add(qualifiedName);
+        visitedClasses.add(qualifiedName);
+        profiler.classVisited();
 
         // 日誌
-        System.out.println(simpleClassName + " qualifiedName " + qualifiedName);
-
-        // 處理類名和泛型
-        try {
-            simpleClassName = CommonUtils.getClassNameWithGenerics(psiClass);
-        } catch (Exception e) {
-            // 忽略異常
-        }
+        LOG.debug(simpleClassName, " qualifiedName ", qualifiedName);
 
         // 根據規則處理接口名稱
-        String tsInterfaceName = processInterfaceName(psiClass, simpleClassName);
+        symbolTable.define(qualifiedName, processInterfaceName(psiClass, simpleClassName));
+
+        ClassFrame frame = new ClassFrame(qualifiedName, depth);
+        TsDeclaration declaration;
+        TsDeclarationCacheService.Entry cached = declarationCache != null
+                ? declarationCache.get(cacheOptionsKey, qualifiedName) : null;
+        if (cached != null) {
+            profiler.cacheHit();
+            // 重放緩存的引用關係和依賴類，使分類和命名與未命中時一致
+            currentFrame = frame;
+            for (Map.Entry<String, Set<String>> reference : cached.getReferences().entrySet()) {
+                for (String toClass : reference.getValue()) {
+                    collectClassReference(reference.getKey(), toClass);
+                }
+            }
+            currentFrame = null;
+            frame.dependencies.addAll(cached.getDependencies());
+            declaration = cached.getDeclaration();
+        } else {
+            // 處理類的註釋
+            String classComment = extractClassComment(psiClass);
 
-        // 根據類型生成不同的TypeScript定義
-        JvmClassKind classKind = psiClass.getClassKind();
-        StringBuilder contentBuilder = new StringBuilder();
+            currentFrame = frame;
+            try {
+                if (classKind.equals(JvmClassKind.CLASS)) {
+                    declaration = processClassType(psiClass, qualifiedName, simpleClassName, classComment);
+                } else {
+                    declaration = processEnumType(psiClass, qualifiedName, simpleClassName, classComment);
+                }
+            } finally {
+                currentFrame = null;
+            }
 
-        if (classKind.equals(JvmClassKind.CLASS)) {
-            processClassType(psiClass, tsInterfaceName, contentBuilder);
-        } else if (classKind.equals(JvmClassKind.ENUM)) {
-            processEnumType(psiClass, tsInterfaceName, contentBuilder);
-        } else {
-            return "unknown";
+            if (declarationCache != null) {
+                declarationCache.put(cacheOptionsKey, qualifiedName,
+                        new TsDeclarationCacheService.Entry(declaration, frame.dependencies, frame.references));
+            }
         }
 
-        // 記錄處理結果
-        String content = contentBuilder.toString();
-        processedClasses.add(qualifiedName);
+        declarationMap.put(qualifiedName, declaration);
+        return frame;
+    }
 
-        // 處理類的註釋
-        processClassComment(psiClass, qualifiedName);
+    /**
+     * 引用一個類：登記為當前類的依賴，稍後由遍歷生成其聲明
+     *
+     * @param psiClass Java類對象
+     * @return 指向該類聲明的類型引用
+     */
+    private TsTypeRef referenceClass(PsiClass psiClass) {
+        if (psiClass == null) {
+            return TsTypeRef.ANY;
+        }
 
-        // 保存內容映射
-        classContentMap.put(qualifiedName, content);
+        String simpleClassName = psiClass.getName();
+        String qualifiedName = psiClass.getQualifiedName();
 
-        // 保存接口名稱映射
-        if (!tsInterfaceName.equals(simpleClassName)) {
-            tsInterfaceNameMap.put(qualifiedName, tsInterfaceName);
+        // 處理泛型或特殊情況
+        if (qualifiedName == null) {
+            return simpleClassName != null ? TsTypeRef.keyword(simpleClassName) : TsTypeRef.ANY;
+        }
+
+        JvmClassKind classKind = psiClass.getClassKind();
+        if (!classKind.equals(JvmClassKind.CLASS) && !classKind.equals(JvmClassKind.ENUM)) {
+            return TsTypeRef.UNKNOWN;
         }
 
-        return tsInterfaceName;
+        if (currentFrame != null) {
+            currentFrame.dependencies.add(psiClass);
+        }
+        return TsTypeRef.reference(qualifiedName);
     }
 
     /**
      * 處理類型為 CLASS 的 Java 類
      */
-    private void processClassType(PsiClass psiClass, String tsInterfaceName, StringBuilder contentBuilder) {
-        contentBuilder.append("interface ").append(tsInterfaceName).append(" {\n");
-
-        // 獲取字段
-        PsiField[] fields = getClassFields(psiClass);
-        PsiMethod[] allMethods = psiClass.getAllMethods();
+    private TsInterfaceDeclaration processClassType(PsiClass psiClass, String qualifiedName,
+                                                    String simpleClassName, String classComment) {
+        // 泛型參數
+        List<String> typeParameters = new ArrayList<>();
+        for (PsiTypeParameter typeParameter : psiClass.getTypeParameters()) {
+            typeParameters.add(typeParameter.getName());
+        }
 
-        for (int i = 0; i < fields.length; i++) {
-            PsiField field = fields[i];
+        // 獲取字段，保留繼承關係時只解析當前類聲明的字段
+        TsTypeRef superType = resolveSuperType(psiClass);
+        PsiField[] fields = superType != null ? psiClass.getFields() : getClassFields(psiClass);
+        // 每個類只建立一次屬性模型，字段不再各自掃描類的全部方法
+        ClassPropertyModel propertyModel = ClassPropertyModel.build(psiClass);
+        List<TsField> tsFields = new ArrayList<>(fields.length);
 
+        for (PsiField field : fields) {
+            ClassPropertyModel.FieldProperty property = propertyModel.getProperty(field);
             // 檢查是否需要跳過 serialVersionUID
             if (shouldSkipField(field)) {
                 continue;
@@ -278,64 +696,78 @@ public class TypescriptContentGenerator {
 
             // 處理字段註釋
             String documentText = extractFieldComment(field);
+            String commentContent = documentText.trim().isEmpty() ? "" : extractCommentContent(documentText);
 
             // 處理字段名稱
-            String fieldName = processFieldName(field, allMethods);
+            String fieldName = processFieldName(field, property);
 
-            // 確定字段分隔符
-            String fieldSplitTag = determineFieldSplitTag(field);
+            // 確定字段是否可選
+            boolean optional = NOT_REQUIRE_SPLIT_TAG.equals(determineFieldSplitTag(property));
 
             // 獲取字段類型
-            String typeString = getTypeString(field.getType(), psiClass);
+            TsTypeRef fieldType = resolveType(field.getType(), psiClass);
 
-            // 添加註釋
-            if (!documentText.trim().isEmpty()) {
-                String commentContent = extractCommentContent(documentText);
-                if (!commentContent.isEmpty()) {
-                    contentBuilder.append("  /**\n   * ").append(commentContent).append("\n   */\n");
-                }
-            }
+            tsFields.add(new TsField(fieldName, optional, fieldType, commentContent));
+        }
 
-            // 添加字段定義
-            contentBuilder.append("  ").append(fieldName).append(fieldSplitTag).append(typeString)
-                    .append(";\n");
+        return new TsInterfaceDeclaration(qualifiedName, simpleClassName, classComment, typeParameters, superType,
+                tsFields);
+    }
 
-            // 添加額外的換行（除了最後一個字段）
-            if (i != fields.length - 1) {
-                contentBuilder.append("\n");
-            }
+    /**
+     * 保留繼承關係時解析父類接口的引用
+     * <p>
+     * 父類作為依賴只生成一次獨立的接口，子類通過 extends 繼承它的字段。
+     * 沒有父類、父類是標準庫類型、映射、集合等特殊類型，或父類在分類時會被跳過（輸出為 any）時返回 null，
+     * 此時父類字段照常展開到子類中
+     * </p>
+     */
+    private TsTypeRef resolveSuperType(PsiClass psiClass) {
+        if (options.isIgnoreParentField() || !options.isPreserveInheritance()) {
+            return null;
         }
 
-        contentBuilder.append("}\n");
+        PsiClassType[] extendsTypes = psiClass.getExtendsListTypes();
+        if (extendsTypes.length == 0) {
+            return null;
+        }
+        PsiClassType extendsType = extendsTypes[0];
+        PsiClass superClass = extendsType.resolve();
+        if (superClass == null || superClass.getQualifiedName() == null || superClass.getName() == null
+                || isStandardLibraryType(superClass.getQualifiedName())
+                || typeClassifier.classify(extendsType) != TypeClassifier.TypeKind.REFERENCE) {
+            return null;
+        }
+        if (shouldSkipByTypeName(superClass.getQualifiedName(), superClass.getName())
+                || shouldSkipContainerClass(superClass.getName(), superClass.hasTypeParameters())) {
+            return null;
+        }
+
+        TsTypeRef superType = processReferenceType(extendsType, psiClass);
+        return superType == TsTypeRef.ANY || superType == TsTypeRef.UNKNOWN ? null : superType;
     }
 
     /**
      * 處理類型為 ENUM 的 Java 類
      */
-    private void processEnumType(PsiClass psiClass, String tsInterfaceName, StringBuilder contentBuilder) {
-        contentBuilder.append("type ").append(tsInterfaceName).append(" = ");
-
-        List<String> enumConstantValueList = new ArrayList<>();
+    private TsEnumDeclaration processEnumType(PsiClass psiClass, String qualifiedName,
+                                              String simpleClassName, String classComment) {
+        List<String> enumConstantList = new ArrayList<>();
         for (PsiField psiField : psiClass.getFields()) {
             if (psiField instanceof PsiEnumConstant) {
-                String name = psiField.getName();
-                String value = "'" + name + "'";
-                enumConstantValueList.add(value);
+                enumConstantList.add(psiField.getName());
             }
         }
 
-        String join = String.join(" | ", enumConstantValueList);
-        contentBuilder.append(join).append(";\n");
+        return new TsEnumDeclaration(qualifiedName, simpleClassName, classComment, enumConstantList);
     }
 
     /**
      * 處理主類，確保它優先被分類
      */
     private void processPrimaryClass(PsiClass selectedClass,
-                                     Map<String, String> requestClasses,
-                                     Map<String, String> responseClasses,
-                                     Map<String, String> mainClassPrefixMap,
-                                     Set<String> skippedClassNames) {
+                                     Map<String, TsDeclaration> requestClasses,
+                                     Map<String, TsDeclaration> responseClasses) {
         if (selectedClass == null) {
             return;
         }
@@ -345,8 +777,8 @@ public class TypescriptContentGenerator {
             return;
         }
 
-        String content = classContentMap.get(qualifiedName);
-        if (StringUtils.isBlank(content)) {
+        TsDeclaration declaration = declarationMap.get(qualifiedName);
+        if (declaration == null) {
             return;
         }
 
@@ -356,48 +788,42 @@ public class TypescriptContentGenerator {
         }
 
         // 檢查是否需要跳過主類
-        if (shouldSkipClass(selectedClass, simpleClassName, content)) {
-            System.out.println("主類被跳過: " + simpleClassName);
-            skippedClassNames.add(simpleClassName);
+        if (shouldSkipClass(selectedClass, simpleClassName, declaration)) {
+            LOG.debug("主類被跳過: ", simpleClassName);
+            symbolTable.markSkipped(qualifiedName);
             return;
         }
 
-        // 格式化內容
-        String formattedContent = formatClassContent(qualifiedName, content);
-
-        // 提取接口名稱和前綴信息
-        extractMainClassPrefix(formattedContent, simpleClassName, mainClassPrefixMap);
-
         // 分析類的使用情境並分類
         ClassUsageInfo usageInfo = analyzeClassUsage(selectedClass);
 
         if (usageInfo.isRequest) {
-            System.out.println("主類 " + simpleClassName + " 被分類為請求類");
-            requestClasses.put(simpleClassName, formattedContent);
+            LOG.debug("主類 ", simpleClassName, " 被分類為請求類");
+            requestClasses.put(qualifiedName, declaration);
         } else {
-            System.out.println("主類 " + simpleClassName + " 被分類為響應類");
-            responseClasses.put(simpleClassName, formattedContent);
+            LOG.debug("主類 ", simpleClassName, " 被分類為響應類");
+            responseClasses.put(qualifiedName, declaration);
         }
     }
 
     /**
      * 處理次要類（非主類）
      */
-    private void processSecondaryClasses(String mainClassQualifiedName,
-                                         Map<String, String> requestClasses,
-                                         Map<String, String> requestDependencyClasses,
-                                         Map<String, String> responseClasses,
-                                         Map<String, String> otherClasses,
-                                         Set<String> skippedClassNames) {
+    private void processSecondaryClasses(Set<String> mainClassQualifiedNames,
+                                         Map<String, TsDeclaration> requestClasses,
+                                         Map<String, TsDeclaration> requestDependencyClasses,
+                                         Map<String, TsDeclaration> responseClasses,
+                                         Map<String, TsDeclaration> otherClasses) {
         // 遍歷所有已處理的類
         for (String classNameWithPackage : processedClasses) {
+            ProgressManager.checkCanceled();
             // 跳過主類
-            if (classNameWithPackage.equals(mainClassQualifiedName)) {
+            if (mainClassQualifiedNames.contains(classNameWithPackage)) {
                 continue;
             }
 
-            String content = classContentMap.get(classNameWithPackage);
-            if (StringUtils.isBlank(content)) {
+            TsDeclaration declaration = declarationMap.get(classNameWithPackage);
+            if (declaration == null) {
                 continue;
             }
 
@@ -406,23 +832,20 @@ public class TypescriptContentGenerator {
 
             // 檢查是否應該跳過
             if (shouldSkipByTypeName(classNameWithPackage, simpleClassName)) {
-                System.out.println("跳過類: " + simpleClassName);
-                skippedClassNames.add(simpleClassName);
+                LOG.debug("跳過類: ", simpleClassName);
+                symbolTable.markSkipped(classNameWithPackage);
                 continue;
             }
 
             // 檢查是否為容器類
-            if (shouldSkipContainerClass(simpleClassName, content)) {
-                System.out.println("跳過容器類: " + simpleClassName);
-                skippedClassNames.add(simpleClassName);
+            if (shouldSkipContainerClass(simpleClassName, declaration.hasTypeParameters())) {
+                LOG.debug("跳過容器類: ", simpleClassName);
+                symbolTable.markSkipped(classNameWithPackage);
                 continue;
             }
 
-            // 格式化內容
-            String formattedContent = formatClassContent(classNameWithPackage, content);
-
             // 嘗試根據使用情境分類
-            classifyByUsage(classNameWithPackage, simpleClassName, formattedContent,
+            classifyByUsage(classNameWithPackage, simpleClassName, declaration,
                     requestClasses, requestDependencyClasses, responseClasses, otherClasses);
         }
     }
@@ -430,11 +853,11 @@ public class TypescriptContentGenerator {
     /**
      * 根據使用情境將類分類到不同組別
      */
-    private void classifyByUsage(String classNameWithPackage, String simpleClassName, String formattedContent,
-                                 Map<String, String> requestClasses,
-                                 Map<String, String> requestDependencyClasses,
-                                 Map<String, String> responseClasses,
-                                 Map<String, String> otherClasses) {
+    private void classifyByUsage(String classNameWithPackage, String simpleClassName, TsDeclaration declaration,
+                                 Map<String, TsDeclaration> requestClasses,
+                                 Map<String, TsDeclaration> requestDependencyClasses,
+                                 Map<String, TsDeclaration> responseClasses,
+                                 Map<String, TsDeclaration> otherClasses) {
         boolean classified = false;
 
         try {
@@ -447,22 +870,22 @@ public class TypescriptContentGenerator {
 
                 // 基於使用情境分類
                 if (usageInfo.isRequest) {
-                    System.out.println("基於使用情境分析，" + simpleClassName + " 被分類為請求類");
-                    requestDependencyClasses.put(simpleClassName, formattedContent);
+                    LOG.debug("基於使用情境分析，", simpleClassName, " 被分類為請求類");
+                    requestDependencyClasses.put(classNameWithPackage, declaration);
                     classified = true;
                 } else {
-                    System.out.println("基於使用情境分析，" + simpleClassName + " 被分類為響應類");
-                    responseClasses.put(simpleClassName, formattedContent);
+                    LOG.debug("基於使用情境分析，", simpleClassName, " 被分類為響應類");
+                    responseClasses.put(classNameWithPackage, declaration);
                     classified = true;
                 }
             }
         } catch (Exception e) {
-            System.out.println("分析 " + simpleClassName + " 的使用情境時出錯: " + e.getMessage());
+            LOG.warn("分析 " + simpleClassName + " 的使用情境時出錯", e);
         }
 
         // 如果基於使用情境的分類失敗，使用基於名稱的分類
         if (!classified) {
-            classifyByName(simpleClassName, formattedContent,
+            classifyByName(simpleClassName, declaration,
                     requestClasses, requestDependencyClasses, responseClasses, otherClasses);
         }
     }
@@ -470,20 +893,21 @@ public class TypescriptContentGenerator {
     /**
      * 根據名稱模式對類進行分類
      */
-    private void classifyByName(String simpleClassName, String formattedContent,
-                                Map<String, String> requestClasses,
-                                Map<String, String> requestDependencyClasses,
-                                Map<String, String> responseClasses,
-                                Map<String, String> otherClasses) {
+    private void classifyByName(String simpleClassName, TsDeclaration declaration,
+                                Map<String, TsDeclaration> requestClasses,
+                                Map<String, TsDeclaration> requestDependencyClasses,
+                                Map<String, TsDeclaration> responseClasses,
+                                Map<String, TsDeclaration> otherClasses) {
+        String qualifiedName = declaration.getQualifiedName();
         if (isRequestClassName(simpleClassName)) {
-            System.out.println("基於名稱模式，" + simpleClassName + " 被分類為請求類");
-            requestDependencyClasses.put(simpleClassName, formattedContent);
+            LOG.debug("基於名稱模式，", simpleClassName, " 被分類為請求類");
+            requestDependencyClasses.put(qualifiedName, declaration);
         } else if (isResponseClassName(simpleClassName)) {
-            System.out.println("基於名稱模式，" + simpleClassName + " 被分類為響應類");
-            responseClasses.put(simpleClassName, formattedContent);
+            LOG.debug("基於名稱模式，", simpleClassName, " 被分類為響應類");
+            responseClasses.put(qualifiedName, declaration);
         } else {
             // 檢查是否為請求類或響應類的依賴
-            classifyByDependency(simpleClassName, formattedContent, requestClasses,
+            classifyByDependency(declaration, requestClasses,
                     requestDependencyClasses, responseClasses, otherClasses);
         }
     }
@@ -491,18 +915,18 @@ public class TypescriptContentGenerator {
     /**
      * 根據依賴關係對類進行分類
      */
-    private void classifyByDependency(String simpleClassName, String formattedContent,
-                                      Map<String, String> requestClasses,
-                                      Map<String, String> requestDependencyClasses,
-                                      Map<String, String> responseClasses,
-                                      Map<String, String> otherClasses) {
+    private void classifyByDependency(TsDeclaration declaration,
+                                      Map<String, TsDeclaration> requestClasses,
+                                      Map<String, TsDeclaration> requestDependencyClasses,
+                                      Map<String, TsDeclaration> responseClasses,
+                                      Map<String, TsDeclaration> otherClasses) {
+        String qualifiedName = declaration.getQualifiedName();
         boolean isDependency = false;
 
         // 檢查是否為請求類的依賴
-        for (String reqClassName : requestClasses.keySet()) {
-            String reqClassContent = requestClasses.get(reqClassName);
-            if (isClassDependency(reqClassName, simpleClassName, reqClassContent, formattedContent)) {
-                requestDependencyClasses.put(simpleClassName, formattedContent);
+        for (TsDeclaration requestDeclaration : requestClasses.values()) {
+            if (isClassDependency(requestDeclaration, declaration)) {
+                requestDependencyClasses.put(qualifiedName, declaration);
                 isDependency = true;
                 break;
             }
@@ -510,10 +934,9 @@ public class TypescriptContentGenerator {
 
         if (!isDependency) {
             // 檢查是否為響應類的依賴
-            for (String resClassName : responseClasses.keySet()) {
-                String resClassContent = responseClasses.get(resClassName);
-                if (isClassDependency(resClassName, simpleClassName, resClassContent, formattedContent)) {
-                    responseClasses.put(simpleClassName, formattedContent);
+            for (TsDeclaration responseDeclaration : responseClasses.values()) {
+                if (isClassDependency(responseDeclaration, declaration)) {
+                    responseClasses.put(qualifiedName, declaration);
                     isDependency = true;
                     break;
                 }
@@ -521,60 +944,48 @@ public class TypescriptContentGenerator {
 
             // 如果不是任何類的依賴，則放到其他類中
             if (!isDependency) {
-                otherClasses.put(simpleClassName, formattedContent);
+                otherClasses.put(qualifiedName, declaration);
             }
         }
     }
 
     /**
-     * 從TypeScript介面內容中提取接口名稱
+     * 獲取類的TypeScript類型
      */
-    private String extractInterfaceName(String content) {
-        if (content == null || !content.contains("interface ")) {
-            return null;
-        }
-
-        int startIndex = content.indexOf("interface ") + "interface ".length();
-        int endIndex = content.indexOf(" {", startIndex);
-        if (endIndex > startIndex) {
-            return content.substring(startIndex, endIndex);
-        }
-        return null;
-    }
-
-    /**
-     * 獲取類的TypeScript類型字串
-     */
-    private String getTypeString(PsiType fieldType, PsiClass containingClass) {
+    private TsTypeRef resolveType(PsiType fieldType, PsiClass containingClass) {
         if (fieldType == null) {
-            return "any";
+            return TsTypeRef.ANY;
         }
 
         // 處理基本類型和常見類型
-        if (CommonUtils.isNumberType(fieldType)) {
-            return "number";
-        } else if (CommonUtils.isStringType(fieldType)) {
-            return "string";
-        } else if (CommonUtils.isBooleanType(fieldType)) {
-            return "boolean";
-        } else if (CommonUtils.isJavaUtilDateType(fieldType)
-                && JavaBeanToTypescriptInterfaceSettingsState.getInstance().enableDataToString) {
-            return "string";
-        } else if (CommonUtils.isMapType(fieldType)) {
-            return processMapType(fieldType);
-        } else if (CommonUtils.isArrayType(fieldType)) {
-            return processArrayType(fieldType);
-        } else {
-            // 處理其他引用類型
-            return processReferenceType(fieldType, containingClass);
+        switch (typeClassifier.classify(fieldType)) {
+            case NUMBER:
+                return TsTypeRef.NUMBER;
+            case STRING:
+                return TsTypeRef.STRING;
+            case BOOLEAN:
+                return TsTypeRef.BOOLEAN;
+            case DATE:
+                if (options.isEnableDataToString()) {
+                    return TsTypeRef.STRING;
+                }
+                return processReferenceType(fieldType, containingClass);
+            case MAP:
+                return processMapType(fieldType);
+            case ARRAY:
+            case COLLECTION:
+                return processArrayType(fieldType);
+            default:
+                // 處理其他引用類型
+                return processReferenceType(fieldType, containingClass);
         }
     }
 
     /**
      * 處理映射類型（Map）
      */
-    private String processMapType(PsiType type) {
-        String defaultVType = "any";
+    private TsTypeRef processMapType(PsiType type) {
+        TsTypeRef valueTypeRef = TsTypeRef.ANY;
 
         if (type instanceof PsiClassReferenceType) {
             PsiClassReferenceType refType = (PsiClassReferenceType) type;
@@ -582,56 +993,56 @@ public class TypescriptContentGenerator {
 
             if (parameters.length == 2) {
                 PsiType valueType = parameters[1];
-
-                if (CommonUtils.isNumberType(valueType)) {
-                    defaultVType = "number";
-                } else if (CommonUtils.isStringType(valueType)) {
-                    defaultVType = "string";
-                } else if (CommonUtils.isArrayType(valueType)) {
-                    defaultVType = getTypeString(valueType, refType.resolve());
+                TypeClassifier.TypeKind valueKind = typeClassifier.classify(valueType);
+
+                if (valueKind == TypeClassifier.TypeKind.NUMBER) {
+                    valueTypeRef = TsTypeRef.NUMBER;
+                } else if (valueKind == TypeClassifier.TypeKind.STRING) {
+                    valueTypeRef = TsTypeRef.STRING;
+                } else if (valueKind == TypeClassifier.TypeKind.ARRAY
+                        || valueKind == TypeClassifier.TypeKind.COLLECTION) {
+                    valueTypeRef = resolveType(valueType, refType.resolve());
                 } else {
                     PsiClass psiClass = CommonUtils.findPsiClass(project, valueType);
                     if (psiClass != null) {
-                        defaultVType = createTypescriptContentForClass(psiClass);
+                        valueTypeRef = referenceClass(psiClass);
                     }
                 }
             }
         }
 
-        return "{[x:string]: " + defaultVType + "}";
+        return TsTypeRef.indexSignature(valueTypeRef);
     }
 
     /**
      * 處理數組和集合類型
      */
-    private String processArrayType(PsiType type) {
+    private TsTypeRef processArrayType(PsiType type) {
         if (type instanceof PsiArrayType) {
             // 原生數組
             PsiType componentType = ((PsiArrayType) type).getComponentType();
-            String componentTypeString = getTypeString(componentType, null);
-            return componentTypeString + "[]";
+            return TsTypeRef.arrayOf(resolveType(componentType, null));
         } else if (type instanceof PsiClassReferenceType) {
             // 集合類型
             PsiClassReferenceType refType = (PsiClassReferenceType) type;
             PsiType[] parameters = refType.getParameters();
 
             if (parameters.length > 0) {
-                String itemTypeString = getTypeString(parameters[0], null);
-                return itemTypeString + "[]";
+                return TsTypeRef.arrayOf(resolveType(parameters[0], null));
             }
         }
 
-        return "any[]";
+        return TsTypeRef.arrayOf(TsTypeRef.ANY);
     }
 
     /**
      * 處理引用類型
      */
-    private String processReferenceType(PsiType fieldType, PsiClass containingClass) {
+    private TsTypeRef processReferenceType(PsiType fieldType, PsiClass containingClass) {
         // 檢查是否為標準庫類型
         String canonicalText = fieldType.getCanonicalText();
         if (isStandardLibraryType(canonicalText)) {
-            return "any";
+            return TsTypeRef.ANY;
         }
 
         if (fieldType instanceof PsiClassReferenceType) {
@@ -643,11 +1054,10 @@ public class TypescriptContentGenerator {
                 return processCollectionType(refType, containingClass);
             }
 
-            // 處理其他引用類型
-            PsiType[] parameters = refType.getParameters();
-            if (parameters.length != 0 && resolvedClass != null) {
+            // 處理其他引用類型，泛型類的原始類型引用也補齊類型參數
+            if (resolvedClass != null && resolvedClass.hasTypeParameters()) {
                 // 處理泛型類
-                return processGenericType(parameters, resolvedClass, containingClass);
+                return processGenericType(refType, resolvedClass, containingClass);
             } else {
                 // 處理普通類
                 return processNormalClassType(refType, containingClass);
@@ -661,12 +1071,12 @@ public class TypescriptContentGenerator {
     /**
      * 處理集合類型
      */
-    private String processCollectionType(PsiClassReferenceType refType, PsiClass containingClass) {
+    private TsTypeRef processCollectionType(PsiClassReferenceType refType, PsiClass containingClass) {
         PsiType[] parameters = refType.getParameters();
         if (parameters.length == 1) {
             // 獲取泛型參數
             PsiType genericType = parameters[0];
-            String genericTypeString = getTypeString(genericType, containingClass);
+            TsTypeRef genericTypeRef = resolveType(genericType, containingClass);
 
             // 收集引用關係
             PsiClass genericPsiClass = CommonUtils.findPsiClass(project, genericType);
@@ -675,66 +1085,80 @@ public class TypescriptContentGenerator {
             }
 
             // 確保處理泛型參數類型
-            createTypescriptContentForClass(genericPsiClass);
+            referenceClass(genericPsiClass);
 
-            return genericTypeString + "[]";
+            return TsTypeRef.arrayOf(genericTypeRef);
         }
 
-        return "any[]";
+        return TsTypeRef.arrayOf(TsTypeRef.ANY);
     }
 
     /**
      * 處理泛型類型
+     * <p>
+     * 泛型類只按聲明生成一次 interface X&lt;T&gt;，使用處通過 PsiSubstitutor 取得每個類型參數的實際類型，
+     * 輸出為 X&lt;Foo&gt;，不會為每種實例化重新展開泛型類。原始類型引用的參數輸出為 any
+     * </p>
      */
-    private String processGenericType(PsiType[] parameters, PsiClass resolvedClass, PsiClass containingClass) {
-        // 處理所有泛型參數
-        for (PsiType parameter : parameters) {
-            PsiClass parameterClass = CommonUtils.findPsiClass(project, parameter);
-            createTypescriptContentForClass(parameterClass);
-        }
-
+    private TsTypeRef processGenericType(PsiClassReferenceType refType, PsiClass resolvedClass,
+                                        PsiClass containingClass) {
         // 處理基類
-        createTypescriptContentForClass(resolvedClass);
+        TsTypeRef typeRef = referenceClass(resolvedClass);
 
         // 收集引用關係
         if (containingClass != null && resolvedClass.getQualifiedName() != null) {
             collectClassReference(containingClass.getQualifiedName(), resolvedClass.getQualifiedName());
         }
 
-        return resolvedClass.getName();
+        if (resolvedClass.getQualifiedName() == null || typeRef == TsTypeRef.UNKNOWN) {
+            return typeRef;
+        }
+
+        // 按泛型類聲明的參數順序解析實際類型
+        PsiSubstitutor substitutor = refType.resolveGenerics().getSubstitutor();
+        PsiTypeParameter[] typeParameters = resolvedClass.getTypeParameters();
+        List<TsTypeRef> typeArguments = new ArrayList<>(typeParameters.length);
+        for (PsiTypeParameter typeParameter : typeParameters) {
+            PsiType typeArgument = substitutor.substitute(typeParameter);
+            if (typeArgument instanceof PsiWildcardType) {
+                typeArgument = ((PsiWildcardType) typeArgument).getBound();
+            }
+            typeArguments.add(typeArgument != null ? resolveType(typeArgument, containingClass) : TsTypeRef.ANY);
+        }
+        return TsTypeRef.generic(resolvedClass.getQualifiedName(), typeArguments);
     }
 
     /**
      * 處理普通類類型
      */
-    private String processNormalClassType(PsiClassReferenceType refType, PsiClass containingClass) {
+    private TsTypeRef processNormalClassType(PsiClassReferenceType refType, PsiClass containingClass) {
         PsiClass resolveClass = refType.resolve();
         if (resolveClass != null && containingClass != null && resolveClass.getQualifiedName() != null) {
             // 收集類引用關係
             collectClassReference(containingClass.getQualifiedName(), resolveClass.getQualifiedName());
         }
 
-        return createTypescriptContentForClass(resolveClass);
+        return referenceClass(resolveClass);
     }
 
     /**
      * 處理其他PsiType類型
      */
-    private String processOtherPsiType(PsiType fieldType, PsiClass containingClass) {
-        if (CommonUtils.isArrayType(fieldType)) {
+    private TsTypeRef processOtherPsiType(PsiType fieldType, PsiClass containingClass) {
+        if (typeClassifier.classify(fieldType) == TypeClassifier.TypeKind.ARRAY) {
             PsiType componentType = ((PsiArrayType) fieldType).getComponentType();
-            String componentTypeString = getTypeString(componentType, containingClass);
+            TsTypeRef componentTypeRef = resolveType(componentType, containingClass);
 
             // 處理組件類型
             PsiClass componentClass = CommonUtils.findPsiClass(project, componentType);
-            createTypescriptContentForClass(componentClass);
+            referenceClass(componentClass);
 
             // 收集引用關係
             if (containingClass != null && componentClass != null && componentClass.getQualifiedName() != null) {
                 collectClassReference(containingClass.getQualifiedName(), componentClass.getQualifiedName());
             }
 
-            return componentTypeString + "[]";
+            return TsTypeRef.arrayOf(componentTypeRef);
         } else {
             PsiClass fieldClass = CommonUtils.findPsiClass(project, fieldType);
             if (fieldClass != null && containingClass != null && fieldClass.getQualifiedName() != null) {
@@ -742,7 +1166,7 @@ public class TypescriptContentGenerator {
                 collectClassReference(containingClass.getQualifiedName(), fieldClass.getQualifiedName());
             }
 
-            return createTypescriptContentForClass(fieldClass);
+            return referenceClass(fieldClass);
         }
     }
 
@@ -751,14 +1175,14 @@ public class TypescriptContentGenerator {
      */
     private String processInterfaceName(PsiClass psiClass, String originalName) {
         // 如果未啟用電文代號命名，直接返回原名稱
-        if (!CommonUtils.getSettings().isUseTransactionCodePrefix()) {
+        if (!options.isUseTransactionCodePrefix()) {
             return originalName;
         }
 
         String qualifiedName = psiClass.getQualifiedName();
 
         // 檢查是否為泛型的容器類
-        if (CommonUtils.getSettings().isOnlyProcessGenericDto()) {
+        if (options.isOnlyProcessGenericDto()) {
             if (isContainerClass(psiClass)) {
                 return originalName;
             }
@@ -772,7 +1196,8 @@ public class TypescriptContentGenerator {
         // 如果有電文代號就以電文代號命名，否則返回原名稱
         if (StringUtils.isNotBlank(transactionCode)) {
             ClassUsageInfo usageInfo = analyzeClassUsage(psiClass);
-            return TransactionCodeExtractor.generateInterfaceName(originalName, transactionCode, usageInfo.isRequest);
+            return TransactionCodeExtractor.generateInterfaceName(originalName, transactionCode, usageInfo.isRequest,
+                    options);
         } else {
             return originalName;
         }
@@ -814,22 +1239,30 @@ public class TypescriptContentGenerator {
     /**
      * 根據依賴關係對類進行排序 (拓撲排序)
      */
-    private void sortByDependencies(Map<String, String> classes) {
+    private void sortByDependencies(Map<String, TsDeclaration> classes) {
         if (classes.size() <= 1) {
             return; // 只有一個類，不需要排序
         }
 
-        System.out.println("執行拓撲排序，共 " + classes.size() + " 個類");
+        LOG.debug("執行拓撲排序，共 ", classes.size(), " 個類");
 
         // 分析類間依賴關係
-        Map<String, Set<String>> dependencyGraph = buildDependencyGraph(classes);
-
-        // 執行拓撲排序
-        List<String> sortedClassNames = topologicalSort(dependencyGraph);
-        System.out.println("拓撲排序結果: " + sortedClassNames);
+        ClassDependencyGraph dependencyGraph = buildDependencyGraph(classes);
+
+        // 執行拓撲排序，循環依賴的類歸為一組
+        List<List<String>> components = dependencyGraph.stronglyConnectedComponents();
+        List<String> sortedClassNames = new ArrayList<>(classes.size());
+        for (int index = components.size() - 1; index >= 0; index--) {
+            List<String> component = components.get(index);
+            if (component.size() > 1) {
+                LOG.debug("發現循環依賴: ", component);
+            }
+            sortedClassNames.addAll(component);
+        }
+        LOG.debug("拓撲排序結果: ", sortedClassNames);
 
         // 重組映射
-        Map<String, String> sortedClasses = new LinkedHashMap<>();
+        Map<String, TsDeclaration> sortedClasses = new LinkedHashMap<>();
         for (String className : sortedClassNames) {
             if (classes.containsKey(className)) {
                 sortedClasses.put(className, classes.get(className));
@@ -841,73 +1274,24 @@ public class TypescriptContentGenerator {
         classes.putAll(sortedClasses);
     }
 
-    /**
-     * 進行類之間引用關係的拓撲排序
-     */
-    private List<String> topologicalSort(Map<String, Set<String>> graph) {
-        List<String> result = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> inProcess = new HashSet<>();
-
-        // 對每個未訪問的節點進行DFS
-        for (String node : graph.keySet()) {
-            if (!visited.contains(node)) {
-                dfs(node, graph, visited, inProcess, result);
-            }
-        }
-
-        // 反轉結果
-        Collections.reverse(result);
-        return result;
-    }
-
-    /**
-     * DFS遞歸函數
-     */
-    private void dfs(String node, Map<String, Set<String>> graph,
-                     Set<String> visited, Set<String> inProcess, List<String> result) {
-        // 檢查循環依賴
-        if (inProcess.contains(node)) {
-            System.out.println("警告: 發現循環依賴於 " + node);
-            return;
-        }
-
-        // 檢查已訪問
-        if (visited.contains(node)) {
-            return;
-        }
-
-        // 標記為處理中
-        inProcess.add(node);
-
-        // 訪問所有依賴
-        for (String neighbor : graph.getOrDefault(node, Collections.emptySet())) {
-            dfs(neighbor, graph, visited, inProcess, result);
-        }
-
-        // 標記為已訪問並從處理中移除
-        inProcess.remove(node);
-        visited.add(node);
-
-        // 添加到結果
-        result.add(node);
-    }
-
     /**
      * 處理嵌套類命名 - 基於引用關係識別嵌套類
      */
     private void processNestedClassesNaming() {
-        System.out.println("執行嵌套類命名處理，引用關係數量: " + classReferences.size());
+        LOG.debug("執行嵌套類命名處理，引用關係數量: ", classReferences.size());
 
         // 1. 找出所有主類 (包含Req或Resp後綴的類)
         Map<String, String> mainClasses = new HashMap<>(); // 類名 -> 電文代號前綴
         Map<String, String> mainClassSuffixes = new HashMap<>(); // 類名 -> 使用的後綴
         Map<String, Boolean> isRequestMap = new HashMap<>();
 
-        // 找出所有已命名的類及其後綴
-        for (Map.Entry<String, String> entry : tsInterfaceNameMap.entrySet()) {
+        // 找出所有已改名的類及其後綴
+        for (Map.Entry<String, String> entry : symbolTable.getNames().entrySet()) {
             String className = entry.getKey();
             String tsInterfaceName = entry.getValue();
+            if (tsInterfaceName.equals(getSimpleClassName(className))) {
+                continue;
+            }
 
             // 尋找所有可能的後綴
             String[] possibleSuffixes = {"Req", "Request", "Resp", "Response", "Res", "Rs"};
@@ -922,16 +1306,16 @@ public class TypescriptContentGenerator {
                         mainClassSuffixes.put(className, suffix);
                         isRequestMap.put(className, suffix.startsWith("Req"));
 
-                        System.out.println("找到主類: " + className + " -> " + tsInterfaceName +
-                                ", 前綴: " + prefix + ", 後綴: " + suffix +
-                                ", 是請求類: " + isRequestMap.get(className));
+                        LOG.debug("找到主類: ", className, " -> ", tsInterfaceName,
+                                ", 前綴: ", prefix, ", 後綴: ", suffix,
+                                ", 是請求類: ", isRequestMap.get(className));
                         break;
                     }
                 }
             }
         }
 
-        System.out.println("找到主類數量: " + mainClasses.size() + ", 內容: " + mainClasses);
+        LOG.debug("找到主類數量: ", mainClasses.size(), ", 內容: ", mainClasses);
 
         // 2. 為每個被主類引用的類應用相同的命名規則
         Map<String, String> renameMap = new HashMap<>();
@@ -942,7 +1326,7 @@ public class TypescriptContentGenerator {
             String exactSuffix = mainClassSuffixes.get(mainClass);
             String mainSimpleClassName = getSimpleClassName(mainClass);
 
-            System.out.println("處理主類 " + mainClass + " 使用後綴: " + exactSuffix);
+            LOG.debug("處理主類 ", mainClass, " 使用後綴: ", exactSuffix);
 
             // 獲取引用的類
             Set<String> referencedClasses = classReferences.getOrDefault(mainClass, new HashSet<>());
@@ -963,16 +1347,16 @@ public class TypescriptContentGenerator {
 
                 // 記錄重命名
                 renameMap.put(referencedClass, newInterfaceName);
-                System.out.println("將重命名嵌套類: " + referencedClass + " -> " + newInterfaceName);
+                LOG.debug("將重命名嵌套類: ", referencedClass, " -> ", newInterfaceName);
             }
 
             // 遞歸處理更深層的嵌套類
             processNestedClassesRecursively(referencedClasses, prefix, exactSuffix, renameMap);
         }
 
-        // 3. 更新接口名稱映射
+        // 3. 更新符號表，所有引用在渲染時自動使用新名稱
         for (Map.Entry<String, String> entry : renameMap.entrySet()) {
-            tsInterfaceNameMap.put(entry.getKey(), entry.getValue());
+            symbolTable.define(entry.getKey(), entry.getValue());
         }
     }
 
@@ -1008,7 +1392,7 @@ public class TypescriptContentGenerator {
 
                 // 記錄重命名
                 renameMap.put(referencedClass, newInterfaceName);
-                System.out.println("遞歸重命名嵌套類: " + referencedClass + " -> " + newInterfaceName);
+                LOG.debug("遞歸重命名嵌套類: ", referencedClass, " -> ", newInterfaceName);
 
                 // 添加到下一層
                 nextLevelClasses.add(referencedClass);
@@ -1021,235 +1405,13 @@ public class TypescriptContentGenerator {
         }
     }
 
-    /**
-     * 應用重命名到所有類
-     */
-    private void applyRenamingToAllClasses(Map<String, String> allClasses) {
-        System.out.println("開始應用重命名...");
-        System.out.println("介面名稱映射: " + tsInterfaceNameMap);
-
-        // 收集重命名映射
-        Map<String, String> interfaceRenameMap = new HashMap<>();
-        Map<String, String> simpleNameRenameMap = new HashMap<>();
-
-        for (Map.Entry<String, String> entry : tsInterfaceNameMap.entrySet()) {
-            String className = entry.getKey();
-            String content = classContentMap.get(className);
-            String simpleClassName = getSimpleClassName(className);
-            String newInterfaceName = entry.getValue();
-
-            // 確保所有簡單類名都有映射
-            simpleNameRenameMap.put(simpleClassName, newInterfaceName);
-
-            if (content != null) {
-                String currentInterfaceName = extractInterfaceName(content);
-
-                if (currentInterfaceName != null && !currentInterfaceName.equals(newInterfaceName)) {
-                    // 記錄重命名
-                    interfaceRenameMap.put(currentInterfaceName, newInterfaceName);
-
-                    // 更新介面定義
-                    content = content.replace("interface " + currentInterfaceName + " {",
-                            "interface " + newInterfaceName + " {");
-
-                    // 特別處理自身引用
-                    content = content.replace(": " + currentInterfaceName + ";",
-                            ": " + newInterfaceName + ";");
-                    content = content.replace(": " + currentInterfaceName + "[]",
-                            ": " + newInterfaceName + "[]");
-
-                    classContentMap.put(className, content);
-                }
-            }
-        }
-
-        System.out.println("介面重命名映射: " + interfaceRenameMap);
-        System.out.println("簡單名稱重命名映射: " + simpleNameRenameMap);
-
-        // 多輪替換
-        for (int round = 0; round < 3; round++) {
-            System.out.println("執行第 " + (round + 1) + " 輪引用替換");
-            boolean anyUpdated = false;
-
-            // 更新所有類內容中的引用
-            for (Map.Entry<String, String> entry : new HashMap<>(allClasses).entrySet()) {
-                String className = entry.getKey();
-                String content = entry.getValue();
-                boolean updated = false;
-
-                // 替換引用
-                for (Map.Entry<String, String> renameEntry : simpleNameRenameMap.entrySet()) {
-                    String oldName = renameEntry.getKey();
-                    String newName = renameEntry.getValue();
-
-                    // 檢查引用
-                    if (hasTypeReference(content, oldName)) {
-                        System.out.println("在 " + className + " 中發現對 " + oldName + " 的引用");
-
-                        // 替換引用
-                        String updatedContent = replaceAllReferences(content, oldName, newName, className);
-
-                        if (!updatedContent.equals(content)) {
-                            content = updatedContent;
-                            updated = true;
-                        }
-                    }
-                }
-
-                if (updated) {
-                    System.out.println("更新了 " + className + " 的內容");
-                    allClasses.put(className, content);
-                    classContentMap.put(className, content);
-                    anyUpdated = true;
-                }
-            }
-
-            if (!anyUpdated) {
-                System.out.println("沒有更多需要替換的引用");
-                break;
-            }
-        }
-
-        // 最終檢查
-        performFinalReferenceCheck(allClasses, simpleNameRenameMap);
-    }
-
-    /**
-     * 檢查一個類是否有對另一個類型的引用
-     */
-    private boolean hasTypeReference(String content, String typeName) {
-        return content.contains(": " + typeName + ";") ||
-                content.contains("?: " + typeName + ";") ||
-                content.contains(": " + typeName + "[") ||
-                content.contains("?: " + typeName + "[") ||
-                content.contains(" " + typeName + " ") ||
-                content.contains(" " + typeName + ",") ||
-                content.contains("," + typeName + " ") ||
-                content.contains("<" + typeName + ">") ||
-                content.contains("interface " + typeName + " {");
-    }
-
-    /**
-     * 執行最終的引用檢查
-     */
-    private void performFinalReferenceCheck(Map<String, String> allClasses, Map<String, String> simpleNameRenameMap) {
-        for (Map.Entry<String, String> entry : allClasses.entrySet()) {
-            String content = entry.getValue();
-            for (String oldName : simpleNameRenameMap.keySet()) {
-                if (content.contains(": " + oldName + ";") ||
-                        content.contains("?: " + oldName + ";") ||
-                        content.contains(": " + oldName + "[")) {
-                    System.out.println("警告: " + entry.getKey() + "中仍存在未替換的類型引用: " + oldName);
-                }
-
-                if (content.contains("interface " + oldName + " {")) {
-                    System.out.println("警告: " + entry.getKey() + "中仍存在未替換的介面定義: " + oldName);
-                }
-            }
-        }
-    }
-
-    /**
-     * 進行最終的類型引用替換，確保引用一致性
-     */
-    private List<String> performFinalCleanup(List<String> contentList) {
-        // 建立替換映射
-        Map<String, String> allRenameMap = new HashMap<>();
-
-        for (Map.Entry<String, String> entry : tsInterfaceNameMap.entrySet()) {
-            String fullClassName = entry.getKey();
-            String simpleClassName = getSimpleClassName(fullClassName);
-            String newInterfaceName = entry.getValue();
-
-            // 只收集需要重命名的類
-            if (!simpleClassName.equals(newInterfaceName)) {
-                allRenameMap.put(simpleClassName, newInterfaceName);
-                System.out.println("最終清理 - 收集重命名: " + simpleClassName + " -> " + newInterfaceName);
-            }
-        }
-
-        // 處理每個內容
-        List<String> processedList = new ArrayList<>();
-
-        for (String content : contentList) {
-            // 創建副本處理
-            String processedContent = content;
-
-            // 替換引用
-            for (Map.Entry<String, String> entry : allRenameMap.entrySet()) {
-                String oldName = entry.getKey();
-                String newName = entry.getValue();
-
-                // 替換介面定義
-                processedContent = processedContent.replaceAll(
-                        "interface\\s+" + oldName + "\\s+\\{",
-                        "interface " + newName + " {");
-
-                // 替換標準類型引用
-                processedContent = processedContent.replace(
-                        ": " + oldName + ";",
-                        ": " + newName + ";");
-
-                // 替換數組引用
-                processedContent = processedContent.replace(
-                        ": " + oldName + "[]",
-                        ": " + newName + "[]");
-
-                // 替換可選屬性引用
-                processedContent = processedContent.replace(
-                        "?: " + oldName + ";",
-                        "?: " + newName + ";");
-
-                // 其他引用形式
-                processedContent = processedContent.replace(
-                        "<" + oldName + ">",
-                        "<" + newName + ">");
-            }
-
-            processedList.add(processedContent);
-        }
-
-        // 檢查未替換的引用
-        checkUnresolvedReferences(processedList, allRenameMap);
-
-        return processedList;
-    }
-
-    /**
-     * 清理對跳過類的引用
-     */
-    private String cleanupSkippedClassReferences(List<String> contentList, Set<String> skippedClassNames) {
-        List<String> cleanedContentList = new ArrayList<>();
-
-        for (String content : contentList) {
-            boolean contentModified = false;
-            String modifiedContent = content;
-
-            // 替換對跳過類的引用
-            for (String skippedClass : skippedClassNames) {
-                if (modifiedContent.contains(": " + skippedClass + ";") ||
-                        modifiedContent.contains(": " + skippedClass + "[]")) {
-
-                    // 替換為 any
-                    modifiedContent = modifiedContent.replace(": " + skippedClass + ";", ": any;");
-                    modifiedContent = modifiedContent.replace(": " + skippedClass + "[];", ": any[];");
-                    contentModified = true;
-                }
-            }
-
-            cleanedContentList.add(contentModified ? modifiedContent : content);
-        }
-
-        return String.join("\n", cleanedContentList);
-    }
-
     // ==================== 工具方法 ====================
 
     /**
      * 獲取類的字段
      */
     private PsiField[] getClassFields(PsiClass psiClass) {
-        if (JavaBeanToTypescriptInterfaceSettingsState.getInstance().ignoreParentField) {
+        if (options.isIgnoreParentField()) {
             return psiClass.getFields();
         } else {
             return psiClass.getAllFields();
@@ -1267,12 +1429,12 @@ public class TypescriptContentGenerator {
     /**
      * 處理字段名稱
      */
-    private String processFieldName(PsiField field, PsiMethod[] allMethods) {
+    private String processFieldName(PsiField field, ClassPropertyModel.FieldProperty property) {
         String fieldName = field.getName();
 
         // 檢查是否使用JsonProperty
-        if (JavaBeanToTypescriptInterfaceSettingsState.getInstance().useAnnotationJsonProperty) {
-            String jsonPropertyValue = CommonUtils.getJsonPropertyValue(field, allMethods);
+        if (options.isUseAnnotationJsonProperty()) {
+            String jsonPropertyValue = property.getJsonName();
             if (jsonPropertyValue != null) {
                 fieldName = jsonPropertyValue;
             }
@@ -1284,14 +1446,14 @@ public class TypescriptContentGenerator {
     /**
      * 確定字段的分隔符（必填或可選）
      */
-    private String determineFieldSplitTag(PsiField field) {
+    private String determineFieldSplitTag(ClassPropertyModel.FieldProperty property) {
         String fieldSplitTag = REQUIRE_SPLIT_TAG; // 默認使用冒號（必填）
 
         // 只有在啟用添加可選標記的設置時，才會添加問號
-        if (JavaBeanToTypescriptInterfaceSettingsState.getInstance().addOptionalMarkToAllFields) {
+        if (options.isAddOptionalMarkToAllFields()) {
             fieldSplitTag = NOT_REQUIRE_SPLIT_TAG;
             // 如果字段有必填注解，則使用冒號
-            if (CommonUtils.isFieldRequire(field.getAnnotations())) {
+            if (property.isRequired()) {
                 fieldSplitTag = REQUIRE_SPLIT_TAG;
             }
         }
@@ -1300,82 +1462,83 @@ public class TypescriptContentGenerator {
     }
 
     /**
-     * 格式化類的內容
+     * 提取類的註釋內容
      */
-    private String formatClassContent(String classNameWithPackage, String content) {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        // 添加註釋
-        String classComment = classCommentMap.get(classNameWithPackage);
-        if (classComment != null && !classComment.trim().isEmpty()) {
-            if (classComment.endsWith("\n")) {
-                stringBuilder.append(classComment);
-            } else {
-                stringBuilder.append(classComment).append("\n");
-            }
+    private String extractClassComment(PsiClass psiClass) {
+        PsiDocComment classDocComment = psiClass.getDocComment();
+        if (classDocComment != null && classDocComment.getText() != null) {
+            return extractCommentContent(classDocComment.getText());
         }
-
-        stringBuilder.append("export ");
-        stringBuilder.append(content);
-
-        return stringBuilder.toString();
+        return "";
     }
 
     /**
-     * 處理類的註釋
+     * 從註釋文本中提取清晰的註釋內容
+     * <p>
+     * 一次線性掃描完成：去掉開頭的 *，把以 * 開頭的續行合併為空格，遇到 @param、@return 等標籤時停止
+     * </p>
      */
-    private void processClassComment(PsiClass psiClass, String qualifiedName) {
-        PsiDocComment classDocComment = psiClass.getDocComment();
-        if (classDocComment != null && classDocComment.getText() != null) {
-            // 格式化類註釋
-            String classComment = extractCommentContent(classDocComment.getText());
-            if (!classComment.isEmpty()) {
-                String formattedComment = "/**\n * " + classComment + "\n */\n";
-                classCommentMap.put(qualifiedName, formattedComment);
+    private String extractCommentContent(String comment) {
+        profiler.commentCleaned();
+        // 移除 JavaDoc 開頭和結尾標記
+        String text = comment.trim().replace("/**", "").replace("*/", "");
+        int length = text.length();
+        StringBuilder content = new StringBuilder(length);
+
+        // 移除開頭的 *
+        int index = 0;
+        int firstChar = skipCommentWhitespace(text, 0);
+        if (firstChar < length && text.charAt(firstChar) == '*') {
+            index = skipCommentWhitespace(text, firstChar + 1);
+        }
+
+        while (index < length) {
+            char c = text.charAt(index);
+            // 如果有 @param、@return 等，只保留主要描述
+            if (c == '@') {
+                break;
             }
+            if (c == '\n') {
+                // 合併多行
+                int next = skipCommentWhitespace(text, index + 1);
+                if (next < length && text.charAt(next) == '*') {
+                    content.append(' ');
+                    index = skipCommentWhitespace(text, next + 1);
+                    continue;
+                }
+            }
+            content.append(c);
+            index++;
         }
+
+        return content.toString().trim();
     }
 
     /**
-     * 從註釋文本中提取清晰的註釋內容
+     * 跳過空白字符，返回第一個非空白字符的位置
      */
-    private String extractCommentContent(String comment) {
-        // 移除 JavaDoc 標記
-        String content = comment.trim()
-                .replaceAll("/\\*\\*", "") // 移除開頭
-                .replaceAll("\\*/", "") // 移除結尾
-                .replaceAll("^\\s*\\*\\s*", "") // 移除每行開頭的 *
-                .replaceAll("\\n\\s*\\*\\s*", " ") // 合併多行
-                .trim();
-
-        // 如果有 @param、@return 等，只保留主要描述
-        if (content.contains("@")) {
-            content = content.split("@")[0].trim();
+    private static int skipCommentWhitespace(String text, int index) {
+        while (index < text.length()) {
+            char c = text.charAt(index);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r' && c != '\f' && c != '\013') {
+                break;
+            }
+            index++;
         }
-
-        return content;
+        return index;
     }
 
     /**
      * 檢查類是否應該跳過
      */
-    private boolean shouldSkipClass(PsiClass psiClass, String simpleClassName, String content) {
+    private boolean shouldSkipClass(PsiClass psiClass, String simpleClassName, TsDeclaration declaration) {
         // 檢查是否為頭部類
         if (simpleClassName.equals("MwHeader") || simpleClassName.contains("Header")) {
             return true;
         }
 
         // 檢查是否為容器類
-        if (CommonUtils.getSettings().isOnlyProcessGenericDto() &&
-                (simpleClassName.contains("Template") ||
-                        simpleClassName.contains("Wrapper") ||
-                        simpleClassName.equals("ResponseEntity") ||
-                        simpleClassName.contains("Response") && content.contains("<") && content.contains(">") ||
-                        simpleClassName.contains("Request") && content.contains("<") && content.contains(">"))) {
-            return true;
-        }
-
-        return false;
+        return shouldSkipContainerClass(simpleClassName, declaration.hasTypeParameters());
     }
 
     /**
@@ -1431,21 +1594,20 @@ public class TypescriptContentGenerator {
     /**
      * 檢查是否應跳過容器類
      */
-    private boolean shouldSkipContainerClass(String simpleClassName, String content) {
-        return CommonUtils.getSettings().isOnlyProcessGenericDto() &&
+    private boolean shouldSkipContainerClass(String simpleClassName, boolean hasTypeParameters) {
+        return options.isOnlyProcessGenericDto() &&
                 (simpleClassName.contains("Template") ||
                         simpleClassName.contains("Wrapper") ||
                         simpleClassName.equals("ResponseEntity") ||
-                        simpleClassName.contains("Response") && content.contains("<") && content.contains(">") ||
-                        simpleClassName.contains("Request") && content.contains("<") && content.contains(">"));
+                        simpleClassName.contains("Response") && hasTypeParameters ||
+                        simpleClassName.contains("Request") && hasTypeParameters);
     }
 
     /**
      * 檢查是否應跳過字段
      */
     private boolean shouldSkipField(PsiField field) {
-        return JavaBeanToTypescriptInterfaceSettingsState.getInstance().ignoreSerialVersionUID &&
-                "serialVersionUID".equals(field.getName());
+        return options.isIgnoreSerialVersionUID() && "serialVersionUID".equals(field.getName());
     }
 
     /**
@@ -1470,87 +1632,33 @@ public class TypescriptContentGenerator {
     /**
      * 檢查一個類是否依賴另一個類
      */
-    private boolean isClassDependency(String className, String dependencyName,
-                                      String classContent, String dependencyContent) {
-        return className.contains(dependencyName) ||
-                dependencyContent.contains(className) ||
-                classContent.contains(dependencyName);
-    }
-
-    /**
-     * 從主類內容中提取前綴信息
-     */
-    private void extractMainClassPrefix(String formattedContent, String simpleClassName,
-                                        Map<String, String> mainClassPrefixMap) {
-        if (formattedContent.contains("interface ")) {
-            String interfaceName = extractInterfaceName(formattedContent);
-            if (interfaceName != null && (interfaceName.contains("Req") || interfaceName.contains("Resp"))) {
-                int suffixIndex = Math.max(
-                        interfaceName.indexOf("Req"),
-                        interfaceName.indexOf("Resp"));
-                if (suffixIndex > 0) {
-                    String transactionCodePrefix = interfaceName.substring(0, suffixIndex);
-                    mainClassPrefixMap.put(simpleClassName, transactionCodePrefix);
-                }
-            }
-        }
+    private boolean isClassDependency(TsDeclaration declaration, TsDeclaration dependency) {
+        return declaration.getJavaName().contains(dependency.getJavaName()) ||
+                dependency.references(declaration.getQualifiedName()) ||
+                declaration.references(dependency.getQualifiedName());
     }
 
     /**
      * 構建依賴關係圖
+     * <p>
+     * 使用遍歷時記錄的引用關係，並補充聲明字段中直接引用的類
+     * </p>
      */
-    private Map<String, Set<String>> buildDependencyGraph(Map<String, String> classes) {
-        Map<String, Set<String>> graph = new HashMap<>();
-
-        // 初始化圖
+    private ClassDependencyGraph buildDependencyGraph(Map<String, TsDeclaration> classes) {
+        ClassDependencyGraph graph = new ClassDependencyGraph();
         for (String className : classes.keySet()) {
-            graph.put(className, new HashSet<>());
+            graph.addNode(className);
         }
 
-        // 分析每個類的依賴
-        for (Map.Entry<String, String> entry : classes.entrySet()) {
-            String className = entry.getKey();
-            String content = entry.getValue();
-
-            for (String otherClass : classes.keySet()) {
-                if (!className.equals(otherClass)) {
-                    // 檢查引用關係
-                    String otherInterfaceName = extractInterfaceName(classes.get(otherClass));
-                    if (otherInterfaceName != null && hasTypeReference(content, otherInterfaceName)) {
-                        // 找到依賴
-                        graph.get(className).add(otherClass);
-                        System.out.println("發現依賴關係: " + className + " -> " + otherClass);
-                    }
-                }
+        for (String className : classes.keySet()) {
+            for (String referencedClass : getDependencies(className)) {
+                graph.addEdge(className, referencedClass);
             }
         }
 
         return graph;
     }
 
-    /**
-     * 檢查未解決的引用
-     */
-    private void checkUnresolvedReferences(List<String> processList, Map<String, String> renameMap) {
-        boolean hasUnresolved = false;
-        for (String content : processList) {
-            for (String oldName : renameMap.keySet()) {
-                if (content.contains(": " + oldName + ";") ||
-                        content.contains(": " + oldName + "[") ||
-                        content.contains("?: " + oldName + ";")) {
-                    System.out.println("警告：仍有未替換的引用 - " + oldName);
-                    hasUnresolved = true;
-                }
-            }
-        }
-
-        if (hasUnresolved) {
-            System.out.println("警告：最終清理後仍有未解決的引用");
-        } else {
-            System.out.println("最終清理完成，所有引用都已解決");
-        }
-    }
-
     /**
      * 從嵌套類名中提取唯一部分
      */
@@ -1606,119 +1714,47 @@ public class TypescriptContentGenerator {
         return "";
     }
 
-    /**
-     * 使用正則表達式全面替換引用
-     */
-    private String replaceAllReferences(String content, String oldName, String newName, String className) {
-        String originalContent = content;
-
-        // 替換引用的各種形式
-        // 1. 常規字段引用
-        if (content.contains(": " + oldName + ";")) {
-            content = content.replace(": " + oldName + ";", ": " + newName + ";");
-        }
-
-        // 2. 數組引用
-        if (content.contains(": " + oldName + "[]")) {
-            content = content.replace(": " + oldName + "[]", ": " + newName + "[]");
-        }
-
-        // 3. 可選屬性引用
-        if (content.contains("?: " + oldName + ";")) {
-            content = content.replace("?: " + oldName + ";", "?: " + newName + ";");
-        }
-
-        // 4. 介面定義
-        String interfacePattern = "interface " + oldName + " \\{";
-        String replacementPattern = "interface " + newName + " {";
-        content = content.replaceAll(interfacePattern, replacementPattern);
-
-        // 5. 使用正則表達式處理其他引用形式
-        String[][] patterns = {
-                {"([^\\w])(", oldName, ")(\\s*[;,:\\[\\]])"}, // 普通類型引用
-                {"([<,]\\s*)(", oldName, ")(\\s*[,>])"}, // 泛型參數
-                {"(:\\s*)(", oldName, ")(\\[\\])"}, // 數組類型
-                {"(\\?:\\s*)(", oldName, ")(\\s*[;,])"}, // 可選屬性
-                {"(extends\\s+)(", oldName, ")(\\s|\\{)"}, // 繼承
-                {"(implements\\s+)(", oldName, ")(\\s|\\{)"} // 實現
-        };
-
-        for (String[] patternParts : patterns) {
-            String pattern = patternParts[0] + patternParts[1] + patternParts[2];
-            String replacement = patternParts[0] + newName + patternParts[2];
-            content = content.replaceAll(pattern, replacement);
-        }
-
-        // 記錄替換結果
-        if (!content.equals(originalContent)) {
-            System.out.println("在 " + className + " 中成功替換: " + oldName + " -> " + newName);
-        }
-
-        return content;
-    }
-
     /**
      * 分析類的使用情境
+     * <p>
+     * 使用次數默認來自 DTO 使用情境索引，同一次生成中的結果會被記住
+     * </p>
      */
     private ClassUsageInfo analyzeClassUsage(PsiClass psiClass) {
-        ClassUsageInfo usageInfo = new ClassUsageInfo();
-        usageInfo.className = psiClass.getQualifiedName();
-
-        // 查找類的所有引用
-        PsiReference[] references = findReferences(psiClass);
-        String simpleName = psiClass.getName();
-        System.out.println("分析類 " + simpleName + " 的使用情境，找到 " + references.length + " 處引用");
-
-        for (PsiReference reference : references) {
-            PsiElement element = reference.getElement();
-
-            // 檢查參數使用
-            boolean isParameter = checkIfUsedAsParameter(element);
-            if (isParameter) {
-                usageInfo.usedAsParameterCount++;
-                System.out.println("  - 作為參數使用於: " + getContainingMethodDescription(element));
-            }
+        String qualifiedName = psiClass.getQualifiedName();
+        ClassUsageInfo cachedInfo = qualifiedName != null ? classUsageCache.get(qualifiedName) : null;
+        if (cachedInfo != null) {
+            return cachedInfo;
+        }
 
-            // 檢查返回值使用
-            boolean isReturnValue = checkIfUsedAsReturnValue(element);
-            if (isReturnValue) {
-                usageInfo.usedAsReturnValueCount++;
-                System.out.println("  - 作為返回值使用於: " + getContainingMethodDescription(element));
-            }
+        ClassUsageInfo usageInfo = new ClassUsageInfo();
+        usageInfo.className = qualifiedName;
 
-            // 檢查控制器方法
-            PsiMethod method = findEnclosingMethod(element);
-            if (method != null && isControllerMethod(method)) {
-                if (isParameter) {
-                    usageInfo.usedAsControllerParameterCount++;
-                }
-                if (isReturnValue) {
-                    usageInfo.usedAsControllerReturnValueCount++;
-                }
-            }
+        ProgressManager.checkCanceled();
+        DtoEndpointUsageIndex.EndpointUsage usage;
+        profiler.enter(GenerationProfiler.Phase.USAGE_ANALYSIS);
+        try {
+            profiler.usageLookup();
+            usage = usageLookup.apply(psiClass);
+        } finally {
+            profiler.exit();
         }
+        usageInfo.usedAsParameterCount = usage.parameterCount;
+        usageInfo.usedAsReturnValueCount = usage.returnValueCount;
+        usageInfo.usedAsControllerParameterCount = usage.controllerParameterCount;
+        usageInfo.usedAsControllerReturnValueCount = usage.controllerReturnValueCount;
 
         // 最終判斷
         determineClassRole(usageInfo);
-        System.out.println("類 " + simpleName + " 分析結果: " +
-                (usageInfo.isRequest ? "Request" : "Response") +
-                " (參數: " + usageInfo.usedAsParameterCount +
-                ", 返回值: " + usageInfo.usedAsReturnValueCount + ")");
+        LOG.debug("類 ", psiClass.getName(), " 分析結果: ",
+                (usageInfo.isRequest ? "Request" : "Response"),
+                " (參數: ", usageInfo.usedAsParameterCount,
+                ", 返回值: ", usageInfo.usedAsReturnValueCount, ")");
 
-        return usageInfo;
-    }
-
-    /**
-     * 獲取處理後的接口名稱
-     */
-    private String getInterfaceName(String classNameWithPackage) {
-        String tsInterfaceName = tsInterfaceNameMap.get(classNameWithPackage);
-        if (tsInterfaceName != null) {
-            return tsInterfaceName;
+        if (qualifiedName != null) {
+            classUsageCache.put(qualifiedName, usageInfo);
         }
-
-        // 返回原類名
-        return getSimpleClassName(classNameWithPackage);
+        return usageInfo;
     }
 
     /**
@@ -1733,25 +1769,30 @@ public class TypescriptContentGenerator {
      * 收集類引用關係
      */
     private void collectClassReference(String fromClass, String toClass) {
-        System.out.println("收集引用: " + fromClass + " -> " + toClass);
+        LOG.debug("收集引用: ", fromClass, " -> ", toClass);
 
         if (fromClass == null || toClass == null) {
-            System.out.println("引用關係為空，跳過");
+            LOG.debug("引用關係為空，跳過");
             return;
         }
 
         // 跳過標準庫類
         if (toClass.startsWith("java.") || toClass.startsWith("javax.")) {
-            System.out.println("跳過標準庫類: " + toClass);
+            LOG.debug("跳過標準庫類: ", toClass);
             return;
         }
 
+        // 記錄到當前類，供緩存重放
+        if (currentFrame != null) {
+            currentFrame.references.computeIfAbsent(fromClass, k -> new LinkedHashSet<>()).add(toClass);
+        }
+
         // 添加引用關係
         if (!classReferences.containsKey(fromClass)) {
             classReferences.put(fromClass, new HashSet<>());
         }
         classReferences.get(fromClass).add(toClass);
-        System.out.println("記錄引用關係: " + fromClass + " -> " + toClass);
+        LOG.debug("記錄引用關係: ", fromClass, " -> ", toClass);
 
         // 添加被引用關係
         if (!referencedByMap.containsKey(toClass)) {
@@ -1770,113 +1811,6 @@ public class TypescriptContentGenerator {
                 canonicalText.endsWith(".LocalDateTime");
     }
 
-    /**
-     * 查找元素所在的方法
-     */
-    private PsiMethod findEnclosingMethod(PsiElement element) {
-        PsiElement parent = element.getParent();
-        while (parent != null) {
-            if (parent instanceof PsiMethod) {
-                return (PsiMethod) parent;
-            }
-            parent = parent.getParent();
-        }
-        return null;
-    }
-
-    /**
-     * 查找類的引用
-     */
-    private PsiReference[] findReferences(PsiClass psiClass) {
-        Collection<PsiReference> references = ReferencesSearch.search(psiClass, GlobalSearchScope.projectScope(project))
-                .findAll();
-        return references.toArray(new PsiReference[0]);
-    }
-
-    /**
-     * 檢查元素是否在方法參數中使用
-     */
-    private boolean checkIfUsedAsParameter(PsiElement element) {
-        PsiElement parent = element.getParent();
-        while (parent != null) {
-            if (parent instanceof PsiParameterList || parent instanceof PsiParameter) {
-                return true;
-            }
-            if (parent instanceof PsiMethod || parent instanceof PsiClass) {
-                break;
-            }
-            parent = parent.getParent();
-        }
-        return false;
-    }
-
-    /**
-     * 檢查元素是否用作返回值
-     */
-    private boolean checkIfUsedAsReturnValue(PsiElement element) {
-        PsiElement parent = element.getParent();
-        while (parent != null) {
-            if (parent instanceof PsiReturnStatement) {
-                return true;
-            }
-            if (parent instanceof PsiTypeElement && parent.getParent() instanceof PsiMethod) {
-                return true;
-            }
-            if (parent instanceof PsiMethod || parent instanceof PsiClass) {
-                break;
-            }
-            parent = parent.getParent();
-        }
-        return false;
-    }
-
-    /**
-     * 檢查方法是否為控制器方法
-     */
-    private boolean isControllerMethod(PsiMethod method) {
-        // 檢查方法註解
-        for (PsiAnnotation annotation : method.getAnnotations()) {
-            String qualifiedName = annotation.getQualifiedName();
-            if (qualifiedName != null && (
-                    qualifiedName.contains("RequestMapping") ||
-                            qualifiedName.contains("GetMapping") ||
-                            qualifiedName.contains("PostMapping") ||
-                            qualifiedName.contains("PutMapping") ||
-                            qualifiedName.contains("DeleteMapping") ||
-                            qualifiedName.contains("PatchMapping"))) {
-                return true;
-            }
-        }
-
-        // 檢查類註解是否有@Controller或@RestController註解
-        PsiClass containingClass = method.getContainingClass();
-        if (containingClass != null) {
-            for (PsiAnnotation annotation : containingClass.getAnnotations()) {
-                String qualifiedName = annotation.getQualifiedName();
-                if (qualifiedName != null && (
-                        qualifiedName.contains("Controller") ||
-                                qualifiedName.contains("RestController"))) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
-    /**
-     * 獲取包含方法的描述信息
-     */
-    private String getContainingMethodDescription(PsiElement element) {
-        PsiMethod method = findEnclosingMethod(element);
-        if (method != null) {
-            PsiClass containingClass = method.getContainingClass();
-            String className = containingClass != null ? containingClass.getName() : "unknown";
-            return className + "." + method.getName();
-        }
-        return "unknown method";
-    }
-
     /**
      * 基於使用情境確定類的角色
      */
@@ -1934,8 +1868,8 @@ public class TypescriptContentGenerator {
      * 日誌輸出引用關係
      */
     private void logReferenceRelationships() {
-        System.out.println("CLASS_REFERENCES 內容: " + classReferences);
-        System.out.println("REFERENCED_BY 內容: " + referencedByMap);
+        LOG.debug("CLASS_REFERENCES 內容: ", classReferences);
+        LOG.debug("REFERENCED_BY 內容: ", referencedByMap);
     }
 
     /**
@@ -1952,4 +1886,20 @@ public class TypescriptContentGenerator {
         int usedAsControllerReturnValueCount = 0; // 在控制器方法中作為返回值使用的次數
         String confidence = "NONE"; // 判斷的置信度
     }
-}
\ No newline at end of file
+
+    /**
+     * 遍歷棧中的類：生成時引用的依賴類、收集的引用關係以及下一個待進入的依賴
+     */
+    private static class ClassFrame {
+        final String qualifiedName;
+        final int depth;
+        final List<PsiClass> dependencies = new ArrayList<>();
+        final Map<String, Set<String>> references = new LinkedHashMap<>();
+        int nextDependency = 0;
+
+        ClassFrame(String qualifiedName, int depth) {
+            this.qualifiedName = qualifiedName;
+            this.depth = depth;
+        }
+    }
+}